@@ -0,0 +1,99 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.benchmarkConfigs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the hot paths of AutoConfig.getX/setX, run with the different thread counts by the nested classes
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AccessBenchmark {
+
+    @State(Scope.Thread)
+    public static class Value {
+        int value = 0;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+    }
+
+    @Benchmark
+    public int getInt() {
+        return AutoConfig.getInt(BenchmarkKeys.INT_KEY);
+    }
+
+    @Benchmark
+    public long getLong() {
+        return AutoConfig.getLong(BenchmarkKeys.LONG_KEY);
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return AutoConfig.getDouble(BenchmarkKeys.DOUBLE_KEY);
+    }
+
+    @Benchmark
+    public boolean getBoolean() {
+        return AutoConfig.getBoolean(BenchmarkKeys.BOOLEAN_KEY);
+    }
+
+    @Benchmark
+    public String getString() {
+        return AutoConfig.getString(BenchmarkKeys.STRING_KEY);
+    }
+
+    @Benchmark
+    public long getLongHandle() {
+        return benchmarkConfigs.LONG_KEY.get();
+    }
+
+    @Benchmark
+    public boolean setInt(Value value) {
+        return AutoConfig.setInt(BenchmarkKeys.INT_KEY, value.value++);
+    }
+
+    @Benchmark
+    public boolean setString() {
+        return AutoConfig.setString(BenchmarkKeys.STRING_KEY, "benchmark");
+    }
+
+    @Threads(1)
+    public static class Threads1 extends AccessBenchmark {
+    }
+
+    @Threads(4)
+    public static class Threads4 extends AccessBenchmark {
+    }
+
+    @Threads(16)
+    public static class Threads16 extends AccessBenchmark {
+    }
+
+    @Threads(64)
+    public static class Threads64 extends AccessBenchmark {
+    }
+}
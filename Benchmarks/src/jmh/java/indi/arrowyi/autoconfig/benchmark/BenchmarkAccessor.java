@@ -0,0 +1,42 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.AutoRegisterAccessor;
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@AutoRegisterAccessor(KeysRegister.ACCESSOR)
+public class BenchmarkAccessor implements ConfigAccessor {
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean set(String key, AutoConfig.Type type, Object value) {
+        values.put(key, value);
+        return true;
+    }
+
+    @Override
+    public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+        Object value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+}
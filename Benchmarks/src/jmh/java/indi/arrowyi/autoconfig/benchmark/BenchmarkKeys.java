@@ -0,0 +1,50 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.AutoRegisterBoolean;
+import indi.arrowyi.autoconfig.AutoRegisterDouble;
+import indi.arrowyi.autoconfig.AutoRegisterInt;
+import indi.arrowyi.autoconfig.AutoRegisterLong;
+import indi.arrowyi.autoconfig.AutoRegisterString;
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+
+public final class BenchmarkKeys {
+
+    @AutoRegisterInt(defaultValue = 1)
+    public static final String INT_KEY = "benchmark_int";
+    @AutoRegisterLong(defaultValue = 2)
+    public static final String LONG_KEY = "benchmark_long";
+    @AutoRegisterDouble(defaultValue = 0.5)
+    public static final String DOUBLE_KEY = "benchmark_double";
+    @AutoRegisterBoolean(defaultValue = true)
+    public static final String BOOLEAN_KEY = "benchmark_boolean";
+    @AutoRegisterString(defaultValue = "benchmark")
+    public static final String STRING_KEY = "benchmark_string";
+
+    @AutoRegisterInt(defaultValue = 0)
+    public static final String LISTENED_KEY = "benchmark_listened_int";
+
+    private BenchmarkKeys() {
+    }
+
+    //AutoConfig is a process wide singleton, both of the calls are no-op after the first time
+    static void init() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister();
+    }
+}
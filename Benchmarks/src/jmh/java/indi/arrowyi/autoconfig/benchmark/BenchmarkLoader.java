@@ -0,0 +1,43 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.AutoRegisterDefaultLoader;
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.DefaultValueLoader;
+
+@AutoRegisterDefaultLoader(KeysRegister.LOADER)
+public class BenchmarkLoader implements DefaultValueLoader {
+
+    @Override
+    public Object getDefaultValue(String key, AutoConfig.Type type) {
+        switch (type) {
+            case INT:
+                return 1;
+            case LONG:
+                return 2L;
+            case FLOAT:
+                return 0.5f;
+            case DOUBLE:
+                return 0.5;
+            case BOOLEAN:
+                return true;
+            default:
+                return "benchmark";
+        }
+    }
+}
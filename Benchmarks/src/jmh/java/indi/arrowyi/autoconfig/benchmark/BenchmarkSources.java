@@ -0,0 +1,71 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+//compiles the sources generated by the benchmarks, against the classpath of the benchmark itself
+final class BenchmarkSources {
+
+    private BenchmarkSources() {
+    }
+
+    static JavaCompiler compiler() {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("the benchmark needs to run on a JDK");
+        }
+
+        return compiler;
+    }
+
+    static void compile(JavaCompiler compiler, List<File> files, List<String> classNames, Path output
+            , String classpath, String... options) throws IOException {
+        List<String> args = new ArrayList<>(Arrays.asList("-nowarn", "-d", output.toString(), "-s", output.toString()
+                , "-classpath", System.getProperty("java.class.path") + File.pathSeparator + classpath));
+        args.addAll(Arrays.asList(options));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            Boolean success = compiler.getTask(null, fileManager, diagnostics, args, classNames
+                    , fileManager.getJavaFileObjectsFromFiles(files)).call();
+            if (!success) {
+                throw new IllegalStateException("the build is failed : " + diagnostics.getDiagnostics());
+            }
+        }
+    }
+
+    static void delete(Path path) throws IOException {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.JavaCompiler;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//the build time of a generated module compiled by javac with the AutoConfigProcessor
+//the incremental build is what gradle does for an aggregating processor : only the changed source is recompiled,
+//the unchanged annotated classes are handed to the processor again from the class files of the last build
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BuildBenchmark {
+
+    private static final String PACKAGE = "indi.arrowyi.buildbench";
+    private static final String PROCESSOR = "indi.arrowyi.autoconfig.configcomplier.AutoConfigProcessor";
+
+    @Param({"3000"})
+    int keyCount;
+
+    @Param({"30"})
+    int classCount;
+
+    private JavaCompiler compiler;
+    private Path root;
+    private List<File> sources;
+    private Path classes;
+    private Path out;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        compiler = BenchmarkSources.compiler();
+        root = Files.createTempDirectory("autoconfig-build");
+        Path sourceDir = Files.createDirectories(root.resolve("src/" + PACKAGE.replace('.', '/')));
+        sources = new ArrayList<>();
+        int perClass = keyCount / classCount;
+        for (int i = 0; i < classCount; i++) {
+            Path source = sourceDir.resolve("Keys" + i + ".java");
+            Files.write(source, keysSource(i, perClass).getBytes(StandardCharsets.UTF_8));
+            sources.add(source.toFile());
+        }
+
+        //the class files of the last build, without the generated ones
+        classes = Files.createDirectories(root.resolve("classes"));
+        compile(sources, new ArrayList<>(), classes, "-proc:none");
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOutput() throws IOException {
+        out = Files.createTempDirectory(root, "out");
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanOutput() throws IOException {
+        BenchmarkSources.delete(out);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSources.delete(root);
+    }
+
+    @Benchmark
+    public void fullBuild() throws IOException {
+        compile(sources, new ArrayList<>(), out, "-processor", PROCESSOR);
+    }
+
+    @Benchmark
+    public void fullBuildWithoutProcessor() throws IOException {
+        compile(sources, new ArrayList<>(), out, "-proc:none");
+    }
+
+    @Benchmark
+    public void incrementalBuild() throws IOException {
+        List<String> unchanged = new ArrayList<>();
+        for (int i = 1; i < classCount; i++) {
+            unchanged.add(PACKAGE + ".Keys" + i);
+        }
+
+        compile(sources.subList(0, 1), unchanged, out, "-processor", PROCESSOR);
+    }
+
+    private void compile(List<File> files, List<String> classNames, Path output, String... options) throws IOException {
+        BenchmarkSources.compile(compiler, files, classNames, output, classes.toString(), options);
+    }
+
+    static String keysSource(int index, int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import indi.arrowyi.autoconfig.*;\n\n")
+                .append("public final class Keys").append(index).append(" {\n");
+        for (int i = 0; i < count; i++) {
+            String key = "build_" + index + "_" + i;
+            switch (i % 4) {
+                case 0:
+                    builder.append("    @AutoRegisterInt(defaultValue = ").append(i).append(")\n");
+                    break;
+                case 1:
+                    builder.append("    @AutoRegisterLong(defaultValue = ").append(i).append("L)\n");
+                    break;
+                case 2:
+                    builder.append("    @AutoRegisterBoolean(defaultValue = true)\n");
+                    break;
+                default:
+                    builder.append("    @AutoRegisterString(defaultValue = \"").append(key).append("\")\n");
+                    break;
+            }
+            builder.append("    public static final String KEY_").append(i).append(" = \"").append(key).append("\";\n");
+        }
+
+        return builder.append("}\n").toString();
+    }
+}
@@ -0,0 +1,61 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigRegister;
+
+class KeysRegister implements ConfigRegister {
+
+    static final String ACCESSOR = "benchmark";
+    static final String LOADER = "benchmark";
+
+    private final String prefix;
+    private final int count;
+
+    KeysRegister(String prefix, int count) {
+        this.prefix = prefix;
+        this.count = count;
+    }
+
+    @Override
+    public void register(AutoConfig config) {
+        for (int i = 0; i < count; i++) {
+            String key = prefix + i;
+            switch (i % 6) {
+                case 0:
+                    AutoConfig.registerInt(key, ACCESSOR, LOADER);
+                    break;
+                case 1:
+                    AutoConfig.registerLong(key, ACCESSOR, LOADER);
+                    break;
+                case 2:
+                    AutoConfig.registerFloat(key, ACCESSOR, LOADER);
+                    break;
+                case 3:
+                    AutoConfig.registerDouble(key, ACCESSOR, LOADER);
+                    break;
+                case 4:
+                    AutoConfig.registerBoolean(key, ACCESSOR, LOADER);
+                    break;
+                default:
+                    AutoConfig.registerString(key, ACCESSOR, LOADER);
+                    break;
+            }
+        }
+    }
+}
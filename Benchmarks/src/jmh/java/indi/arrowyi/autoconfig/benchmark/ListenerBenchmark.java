@@ -0,0 +1,68 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//the time from setInt to the moment all the listeners of the key have been called
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerBenchmark {
+
+    @Param({"1", "16", "256"})
+    int listenerCount;
+
+    private final AtomicLong notified = new AtomicLong();
+    private AutoConfig.ConfigChangedListener[] listeners;
+    private int value = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+        listeners = new AutoConfig.ConfigChangedListener[listenerCount];
+        for (int i = 0; i < listenerCount; i++) {
+            listeners[i] = (item, value) -> notified.incrementAndGet();
+            AutoConfig.addChangedListener(BenchmarkKeys.LISTENED_KEY, listeners[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (AutoConfig.ConfigChangedListener listener : listeners) {
+            AutoConfig.removeChangedListener(BenchmarkKeys.LISTENED_KEY, listener);
+        }
+    }
+
+    @Benchmark
+    public long fanOut() {
+        long target = notified.get() + listenerCount;
+        AutoConfig.setInt(BenchmarkKeys.LISTENED_KEY, ++value);
+        while (notified.get() < target) {
+            Thread.yield();
+        }
+
+        return target;
+    }
+}
@@ -0,0 +1,48 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the reading with no logger installed, getInt is the primitive path and getIntBoxed goes through the checked
+//boxed path which has the debug logging
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogBenchmark {
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+    }
+
+    @Benchmark
+    public int getInt() {
+        return AutoConfig.getInt(BenchmarkKeys.INT_KEY);
+    }
+
+    @Benchmark
+    public int getIntBoxed() {
+        return (Integer) AutoConfig.get(BenchmarkKeys.INT_KEY);
+    }
+}
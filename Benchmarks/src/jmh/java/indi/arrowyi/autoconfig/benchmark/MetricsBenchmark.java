@@ -0,0 +1,64 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigMetrics;
+import indi.arrowyi.autoconfig.configmanager.JmxConfigMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the cost of the metrics on the reading and writing, without it and with the JMX one of the different sample rates
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    //0 means no metrics
+    @Param({"0", "1", "64"})
+    int sampleRate;
+
+    @State(Scope.Thread)
+    public static class Value {
+        int value = 0;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+        AutoConfig.setMetrics(sampleRate == 0 ? ConfigMetrics.NOOP : new JmxConfigMetrics(sampleRate));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        AutoConfig.setMetrics(null);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return AutoConfig.getInt(BenchmarkKeys.INT_KEY);
+    }
+
+    @Benchmark
+    public boolean setInt(Value value) {
+        return AutoConfig.setInt(BenchmarkKeys.INT_KEY, value.value++);
+    }
+}
@@ -0,0 +1,63 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.benchmarkConfigs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the reading of the keys with and without the near cache, by the key and by the typed handle
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearCacheBenchmark {
+
+    @Param({"false", "true"})
+    boolean nearCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+        for (String key : new String[]{BenchmarkKeys.INT_KEY, BenchmarkKeys.LONG_KEY, BenchmarkKeys.STRING_KEY}) {
+            if (nearCache) {
+                AutoConfig.enableNearCache(key);
+            } else {
+                AutoConfig.disableNearCache(key);
+            }
+        }
+    }
+
+    @Benchmark
+    public int getInt() {
+        return AutoConfig.getInt(BenchmarkKeys.INT_KEY);
+    }
+
+    @Benchmark
+    public String getString() {
+        return AutoConfig.getString(BenchmarkKeys.STRING_KEY);
+    }
+
+    @Benchmark
+    public long getLongHandle() {
+        return benchmarkConfigs.LONG_KEY.get();
+    }
+}
@@ -0,0 +1,164 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigRegister;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//the cold start of many registers, every fork is a fresh JVM and loads the generated registers once.
+//The keys of a register use the accessor and the loader of the next one, so most of them are bound late
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ParallelStartupBenchmark {
+
+    private static final String PACKAGE = "indi.arrowyi.startupbench";
+
+    @Param({"100"})
+    int registerCount;
+
+    @Param({"30"})
+    int keyCount;
+
+    private Path root;
+    private URLClassLoader loader;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("autoconfig-startup");
+        Path sourceDir = Files.createDirectories(root.resolve("src/" + PACKAGE.replace('.', '/')));
+        Path classes = Files.createDirectories(root.resolve("classes"));
+
+        List<File> sources = new ArrayList<>();
+        sources.add(write(sourceDir, "StartupAccessor", accessorSource()));
+        sources.add(write(sourceDir, "StartupLoader", loaderSource()));
+        StringBuilder services = new StringBuilder();
+        for (int i = 0; i < registerCount; i++) {
+            sources.add(write(sourceDir, "Register" + i, registerSource(i)));
+            services.append(PACKAGE).append(".Register").append(i).append('\n');
+        }
+        BenchmarkSources.compile(BenchmarkSources.compiler(), sources, new ArrayList<>(), classes, "", "-proc:none");
+
+        Path servicesFile = classes.resolve("META-INF/services/" + ConfigRegister.class.getName());
+        Files.createDirectories(servicesFile.getParent());
+        Files.write(servicesFile, services.toString().getBytes(StandardCharsets.UTF_8));
+
+        loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        //every key should have been bound to the accessor and loader of the next register
+        for (int i = 0; i < registerCount; i++) {
+            for (int j = 0; j < keyCount; j++) {
+                String key = key(i, j);
+                if (AutoConfig.getInt(key) != j || !AutoConfig.setInt(key, j + 1) || AutoConfig.getInt(key) != j + 1) {
+                    throw new IllegalStateException("the key is not bound correctly --> " + key);
+                }
+            }
+        }
+
+        loader.close();
+        BenchmarkSources.delete(root);
+    }
+
+    @Benchmark
+    public void loadConfigRegister() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister(loader);
+    }
+
+    @Benchmark
+    public void loadConfigRegisterInParallel() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegisterInParallel(loader);
+    }
+
+    private static File write(Path dir, String className, String source) throws IOException {
+        Path file = dir.resolve(className + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static String key(int register, int index) {
+        return "startup_" + register + "_" + index;
+    }
+
+    private String registerSource(int index) {
+        int next = (index + 1) % registerCount;
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import indi.arrowyi.autoconfig.configmanager.*;\n\n")
+                .append("public class Register").append(index).append(" implements ConfigRegister {\n")
+                .append("    @Override\n")
+                .append("    public void register(AutoConfig config) {\n")
+                .append("        AutoConfig.registerAccessor(\"accessor").append(index).append("\", new StartupAccessor());\n")
+                .append("        AutoConfig.registerDefaultValueLoader(\"loader").append(index).append("\", new StartupLoader());\n");
+        for (int j = 0; j < keyCount; j++) {
+            builder.append("        AutoConfig.registerInt(\"").append(key(index, j)).append("\", \"accessor")
+                    .append(next).append("\", \"loader").append(next).append("\");\n");
+        }
+
+        return builder.append("    }\n}\n").toString();
+    }
+
+    private static String accessorSource() {
+        return "package " + PACKAGE + ";\n\n"
+                + "import indi.arrowyi.autoconfig.configmanager.*;\n"
+                + "import java.util.Map;\n"
+                + "import java.util.concurrent.ConcurrentHashMap;\n\n"
+                + "public class StartupAccessor implements ConfigAccessor {\n"
+                + "    private final Map<String, Object> values = new ConcurrentHashMap<>();\n\n"
+                + "    @Override\n"
+                + "    public boolean set(String key, AutoConfig.Type type, Object value) {\n"
+                + "        values.put(key, value);\n"
+                + "        return true;\n"
+                + "    }\n\n"
+                + "    @Override\n"
+                + "    public Object get(String key, AutoConfig.Type type, Object defaultValue) {\n"
+                + "        return values.getOrDefault(key, defaultValue);\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    //the default of the key is the index in its register
+    private static String loaderSource() {
+        return "package " + PACKAGE + ";\n\n"
+                + "import indi.arrowyi.autoconfig.configmanager.*;\n\n"
+                + "public class StartupLoader implements DefaultValueLoader {\n"
+                + "    @Override\n"
+                + "    public Object getDefaultValue(String key, AutoConfig.Type type) {\n"
+                + "        return Integer.valueOf(key.substring(key.lastIndexOf('_') + 1));\n"
+                + "    }\n"
+                + "}\n";
+    }
+}
@@ -0,0 +1,53 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(3)
+public class RegisterBenchmark {
+
+    @Param({"10000"})
+    int keyCount;
+
+    private int round = 0;
+    private KeysRegister register;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkKeys.init();
+    }
+
+    //the keys could not be unregistered, so every iteration registers a fresh set of keys
+    @Setup(Level.Iteration)
+    public void prepareKeys() {
+        register = new KeysRegister("register_" + (round++) + "_", keyCount);
+    }
+
+    @Benchmark
+    public void register() {
+        //the register only goes through the static registering methods of AutoConfig
+        register.register(null);
+    }
+}
@@ -0,0 +1,118 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//the cold start of a processed module of 3000 keys, with the binary registry and with the generated register calls
+//only (the registry resource is removed), every fork is a fresh JVM
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class RegistryStartupBenchmark {
+
+    private static final String PROCESSOR = "indi.arrowyi.autoconfig.configcomplier.AutoConfigProcessor";
+
+    @Param({"3000"})
+    int keyCount;
+
+    @Param({"30"})
+    int classCount;
+
+    private Path root;
+    private URLClassLoader withRegistry;
+    private URLClassLoader withoutRegistry;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("autoconfig-registry");
+        Path sourceDir = Files.createDirectories(root.resolve("src/indi/arrowyi/buildbench"));
+        Path classes = Files.createDirectories(root.resolve("classes"));
+        Path plainClasses = Files.createDirectories(root.resolve("plain"));
+
+        List<File> sources = new ArrayList<>();
+        int perClass = keyCount / classCount;
+        for (int i = 0; i < classCount; i++) {
+            Path source = sourceDir.resolve("Keys" + i + ".java");
+            Files.write(source, BuildBenchmark.keysSource(i, perClass).getBytes(StandardCharsets.UTF_8));
+            sources.add(source.toFile());
+        }
+
+        //the generated register is listed by hand, the AutoService processor is not on the path of the benchmark
+        BenchmarkSources.compile(BenchmarkSources.compiler(), sources, new ArrayList<>(), classes, "", "-processor", PROCESSOR);
+        Path services = Files.createDirectories(classes.resolve("META-INF/services"))
+                .resolve("indi.arrowyi.autoconfig.configmanager.ConfigRegister");
+        Files.write(services, "indi.arrowyi.autoconfig.configmanager.buildbenchRegister\n".getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<Path> paths = Files.walk(classes)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = plainClasses.resolve(classes.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else if (!path.toString().endsWith(".registry")) {
+                    Files.copy(path, target);
+                }
+            }
+        }
+
+        withRegistry = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+        withoutRegistry = new URLClassLoader(new URL[]{plainClasses.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        //the first key of every class is an int key with the default 0
+        for (int i = 0; i < classCount; i++) {
+            String key = "build_" + i + "_0";
+            if (!AutoConfig.isKeyDefined(key) || AutoConfig.getInt(key) != 0) {
+                throw new IllegalStateException("the key is not registered correctly --> " + key);
+            }
+        }
+
+        withRegistry.close();
+        withoutRegistry.close();
+        BenchmarkSources.delete(root);
+    }
+
+    @Benchmark
+    public void loadWithRegistry() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister(withRegistry);
+    }
+
+    @Benchmark
+    public void loadWithRegisterCalls() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister(withoutRegistry);
+    }
+}
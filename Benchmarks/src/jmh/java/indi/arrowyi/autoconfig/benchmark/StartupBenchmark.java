@@ -0,0 +1,45 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.benchmark;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//the cold start of AutoConfig, every fork is a fresh JVM so that ServiceLoader and all the registers run for real
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    @Benchmark
+    public void loadConfigRegister() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister();
+    }
+
+    //only the manifests are read, no register runs until a key is touched
+    @Benchmark
+    public void loadConfigRegisterLazily() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegisterLazily();
+    }
+}
@@ -23,11 +23,23 @@ import indi.arrowyi.autoconfig.configmanager.AutoConfig;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @AutoService(Processor.class)
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
@@ -63,6 +75,9 @@ public class AutoConfigProcessor extends AbstractProcessor {
         Object defaultValue;
         String accessor;
         String defaultLoader;
+        String fieldName;
+        String ownerName;
+        Element owner;
     }
 
     static class ConfigClass {
@@ -78,34 +93,49 @@ public class AutoConfigProcessor extends AbstractProcessor {
     private final FieldProcessor fieldProcessor = new FieldProcessor(this);
     private final ClassProcessor classProcessor = new ClassProcessor(this);
 
+    //the files of the module are generated only once in a compilation, the later rounds only see the generated sources
+    private boolean generated = false;
+
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        if (roundEnvironment.processingOver()) {
+            return true;
+        }
+
         printMessageW("begin to process indi.arrowyi.configcomplier.AutoConfigProcessor");
 
         List<ConfigItemInfo> FieldItems = fieldProcessor.processFieldAnnotation(roundEnvironment, processingEnv);
-        pickupDefaultAccessorOrLoaderConfigItems(FieldItems);
         List<ConfigClass> accessorItems = classProcessor.processAccessorAnnotation(roundEnvironment, processingEnv);
         List<ConfigClass> loaderItems = classProcessor.processLoaderAnnotation(roundEnvironment, processingEnv);
         Set<String> containsSet = classProcessor.processRegisterAnnotation(roundEnvironment, processingEnv);
 
         if (FieldItems.size() < 1 && accessorItems.size() < 1 && loaderItems.size() < 1) {
             printMessageW("no items found for this round ");
+        } else if (generated) {
+            printMessageW("the files of module " + fieldProcessor.moduleName
+                    + " have been generated, the items found in this round are skipped");
         } else {
             printMessageW("begin to generate files, module name is " + fieldProcessor.moduleName);
 
-            String accessorName = generateDefaultAccessor(defaultAccessors, fieldProcessor.moduleName);
-            String loaderName = generateDefaultLoader(defaultLoaders, fieldProcessor.moduleName);
+            List<ConfigItemInfo> defaultAccessors = new ArrayList<>();
+            List<ConfigItemInfo> defaultLoaders = new ArrayList<>();
+            pickupDefaultAccessorOrLoaderConfigItems(FieldItems, defaultAccessors, defaultLoaders);
+
+            String accessorName = defaultAccessors.isEmpty() ? null
+                    : generateDefaultAccessor(defaultAccessors, fieldProcessor.moduleName);
+            String loaderName = defaultLoaders.isEmpty() ? null
+                    : generateDefaultLoader(defaultLoaders, fieldProcessor.moduleName);
             generateRegisterFile(FieldItems, accessorItems, loaderItems, fieldProcessor.moduleName, loaderName, accessorName, containsSet);
+            generateConfigHandles(FieldItems, fieldProcessor.moduleName);
+            generated = true;
         }
 
         printMessageW("end of process indi.arrowyi.configcomplier.CommonSettingsProcessor");
         return true;
     }
 
-    private List<ConfigItemInfo> defaultAccessors = new ArrayList<>();
-    private List<ConfigItemInfo> defaultLoaders = new ArrayList<>();
-
-    private boolean pickupDefaultAccessorOrLoaderConfigItems(List<ConfigItemInfo> itemInfos) {
+    private void pickupDefaultAccessorOrLoaderConfigItems(List<ConfigItemInfo> itemInfos
+            , List<ConfigItemInfo> defaultAccessors, List<ConfigItemInfo> defaultLoaders) {
         for (ConfigItemInfo info : itemInfos) {
             if (info.accessor == null || info.accessor.isEmpty()) {
                 defaultAccessors.add(info);
@@ -115,13 +145,40 @@ public class AutoConfigProcessor extends AbstractProcessor {
                 defaultLoaders.add(info);
             }
         }
+    }
+
+    //the classes declaring the keys, the gradle incremental build maps the generated file back to them
+    private Set<Element> originatingElements(List<ConfigItemInfo> items) {
+        Set<Element> elements = new LinkedHashSet<>();
+        for (ConfigItemInfo info : items) {
+            if (info.owner != null) {
+                elements.add(info.owner);
+            }
+        }
 
-        return true;
+        return elements;
+    }
+
+    private void writeJavaFile(TypeSpec.Builder builder, Set<Element> originatingElements) {
+        for (Element element : originatingElements) {
+            builder.addOriginatingElement(element);
+        }
+
+        JavaFile javaFile = JavaFile.builder("indi.arrowyi.autoconfig.configmanager"
+                , builder.build()).build();
+
+        Filer filer = processingEnv.getFiler();
+
+        try {
+            javaFile.writeTo(filer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private String generateDefaultAccessor(List<ConfigItemInfo> items, String moduleName) {
         ClassName iConfigAccessor = ClassName.get("indi.arrowyi.autoconfig.configmanager"
-                , "ConfigAccessor");
+                , "IndexedConfigAccessor");
 
         String className = (moduleName != null ? moduleName : items.get(0).key) + "520DefaultAccessor";
 
@@ -132,47 +189,102 @@ public class AutoConfigProcessor extends AbstractProcessor {
         ClassName string = ClassName.get("java.lang", "String");
         ClassName type = ClassName.get(AutoConfig.Type.class);
 
-        ClassName hashMap = ClassName.get(HashMap.class);
-        ClassName map = ClassName.get(Map.class);
-
         TypeSpec.Builder defaultAccessorBuilder = TypeSpec.classBuilder(defaultAccessor)
                 .addSuperinterface(iConfigAccessor).addModifiers(Modifier.PUBLIC);
 
+        //every key owns a fixed slot, the primitive values are kept as raw bits in the long slots,
+        //so that the primitive accessing does not need the boxing
+        defaultAccessorBuilder.addField(FieldSpec.builder(AtomicLongArray.class, "slots"
+                , Modifier.PRIVATE, Modifier.FINAL).initializer("new $T($L)", AtomicLongArray.class, items.size()).build());
+        defaultAccessorBuilder.addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(AtomicReferenceArray.class), string)
+                , "strings", Modifier.PRIVATE, Modifier.FINAL).initializer("new $T<>($L)", AtomicReferenceArray.class, items.size()).build());
+        //the keys registered against the default accessor at runtime, such as the keys of the other modules,
+        //have no ordinal, they are kept in the map as before
+        defaultAccessorBuilder.addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(Map.class), string, object)
+                , "others", Modifier.PRIVATE, Modifier.FINAL).initializer("new $T<>()", ConcurrentHashMap.class).build());
+        defaultAccessorBuilder.addField(FieldSpec.builder(AtomicIntegerArray.class, "assigned"
+                , Modifier.PRIVATE, Modifier.FINAL).initializer("new $T($L)", AtomicIntegerArray.class, items.size()).build());
+
+        //the dense ordinal of the key, it is resolved once when the key is bound by the steward
+        List<CodeBlock> indexes = new ArrayList<>();
+        addIndexOf(defaultAccessorBuilder, items, indexes);
+        addStaticInitializer(defaultAccessorBuilder, indexes);
+
+        MethodSpec.Builder putMethod = MethodSpec.methodBuilder("put")
+                .addModifiers(Modifier.PRIVATE).returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addParameter(ParameterSpec.builder(TypeName.LONG, "bits").build())
+                .beginControlFlow("if (index < 0)").addStatement("return false").endControlFlow()
+                .addStatement("slots.set(index, bits)")
+                .addStatement("assigned.set(index, 1)")
+                .addStatement("return true");
+
         MethodSpec.Builder setMethod = MethodSpec.methodBuilder("set")
                 .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.BOOLEAN)
                 .addParameter(ParameterSpec.builder(string, "key").build())
                 .addParameter(ParameterSpec.builder(type, "type").build())
                 .addParameter(ParameterSpec.builder(object, "value").build())
-                .beginControlFlow("if (type.isTypeOf(value))")
-                .addStatement("values.putIfAbsent(key, value)").addStatement("return true")
-                .nextControlFlow("else").addStatement("return false").endControlFlow();
+                .addStatement("int index = indexOf(key)")
+                .beginControlFlow("if (index >= 0)").addStatement("return set(index, type, value)").endControlFlow()
+                .beginControlFlow("if (!type.isTypeOf(value))").addStatement("return false").endControlFlow()
+                .addStatement("others.put(key, value)")
+                .addStatement("return true");
 
+        MethodSpec.Builder setByIndexMethod = MethodSpec.methodBuilder("set")
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addParameter(ParameterSpec.builder(type, "type").build())
+                .addParameter(ParameterSpec.builder(object, "value").build())
+                .beginControlFlow("if (index < 0 || !type.isTypeOf(value))").addStatement("return false").endControlFlow()
+                .beginControlFlow("switch(type)")
+                .addStatement("case INT : return put(index, (Integer) value)")
+                .addStatement("case LONG : return put(index, (Long) value)")
+                .addStatement("case FLOAT : return put(index, Float.floatToRawIntBits((Float) value))")
+                .addStatement("case DOUBLE : return put(index, Double.doubleToRawLongBits((Double) value))")
+                .addStatement("case BOOLEAN : return put(index, (Boolean) value ? 1L : 0L)")
+                .endControlFlow()
+                .addStatement("strings.set(index, (String) value)")
+                .addStatement("assigned.set(index, 1)")
+                .addStatement("return true");
 
         MethodSpec.Builder getMethod = MethodSpec.methodBuilder("get")
                 .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(object)
                 .addParameter(ParameterSpec.builder(string, "key").build())
                 .addParameter(ParameterSpec.builder(type, "type").build())
                 .addParameter(ParameterSpec.builder(object, "defaultValue").build())
-                .addStatement("return values.get(key) == null ? defaultValue : values.get(key)");
-
-
-        FieldSpec.Builder mapField = FieldSpec.builder(ParameterizedTypeName.get(map, string, object), "values"
-                        , Modifier.PRIVATE)
-                .initializer("new $T()", hashMap);
-
-
-        defaultAccessorBuilder.addMethod(setMethod.build()).addField(mapField.build()).addMethod(getMethod.build());
-
-        JavaFile javaFile = JavaFile.builder("indi.arrowyi.autoconfig.configmanager"
-                , defaultAccessorBuilder.build()).build();
+                .addStatement("int index = indexOf(key)")
+                .addStatement("return index >= 0 ? get(index, type, defaultValue) : others.getOrDefault(key, defaultValue)");
 
-        Filer filer = processingEnv.getFiler();
-
-        try {
-            javaFile.writeTo(filer);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        MethodSpec.Builder getByIndexMethod = MethodSpec.methodBuilder("get")
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(object)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addParameter(ParameterSpec.builder(type, "type").build())
+                .addParameter(ParameterSpec.builder(object, "defaultValue").build())
+                .beginControlFlow("if (index < 0 || assigned.get(index) == 0)").addStatement("return defaultValue").endControlFlow()
+                .beginControlFlow("switch(type)")
+                .addStatement("case INT : return (int) slots.get(index)")
+                .addStatement("case LONG : return slots.get(index)")
+                .addStatement("case FLOAT : return Float.intBitsToFloat((int) slots.get(index))")
+                .addStatement("case DOUBLE : return Double.longBitsToDouble(slots.get(index))")
+                .addStatement("case BOOLEAN : return slots.get(index) != 0")
+                .endControlFlow()
+                .addStatement("return strings.get(index)");
+
+        defaultAccessorBuilder.addMethod(setMethod.build()).addMethod(getMethod.build())
+                .addMethod(setByIndexMethod.build()).addMethod(getByIndexMethod.build());
+        generatePrimitiveAccess(defaultAccessorBuilder, "Int", TypeName.INT
+                , "(int) slots.get(index)", "value", "INT");
+        generatePrimitiveAccess(defaultAccessorBuilder, "Long", TypeName.LONG
+                , "slots.get(index)", "value", "LONG");
+        generatePrimitiveAccess(defaultAccessorBuilder, "Float", TypeName.FLOAT
+                , "Float.intBitsToFloat((int) slots.get(index))", "Float.floatToRawIntBits(value)", "FLOAT");
+        generatePrimitiveAccess(defaultAccessorBuilder, "Double", TypeName.DOUBLE
+                , "Double.longBitsToDouble(slots.get(index))", "Double.doubleToRawLongBits(value)", "DOUBLE");
+        generatePrimitiveAccess(defaultAccessorBuilder, "Boolean", TypeName.BOOLEAN
+                , "slots.get(index) != 0", "value ? 1L : 0L", "BOOLEAN");
+        defaultAccessorBuilder.addMethod(putMethod.build());
+
+        writeJavaFile(defaultAccessorBuilder, originatingElements(items));
 
         for (ConfigItemInfo info : items) {
             info.accessor = className;
@@ -182,10 +294,46 @@ public class AutoConfigProcessor extends AbstractProcessor {
 
     }
 
+    //the primitive accessing by the key goes to the one by the index, or to the boxed one for the keys without the index
+    private void generatePrimitiveAccess(TypeSpec.Builder accessorBuilder, String name, TypeName primitive
+            , String slotValue, String bits, String type) {
+        accessorBuilder.addMethod(MethodSpec.methodBuilder("get" + name)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(primitive)
+                .addParameter(ParameterSpec.builder(String.class, "key").build())
+                .addParameter(ParameterSpec.builder(primitive, "defaultValue").build())
+                .addStatement("int index = indexOf(key)")
+                .addStatement("return index >= 0 ? get$L(index, defaultValue) : ($T) get(key, $T.$L, defaultValue)"
+                        , name, primitive.box(), AutoConfig.Type.class, type)
+                .build());
+
+        accessorBuilder.addMethod(MethodSpec.methodBuilder("get" + name)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(primitive)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addParameter(ParameterSpec.builder(primitive, "defaultValue").build())
+                .addStatement("return index < 0 || assigned.get(index) == 0 ? defaultValue : " + slotValue)
+                .build());
+
+        accessorBuilder.addMethod(MethodSpec.methodBuilder("set" + name)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(String.class, "key").build())
+                .addParameter(ParameterSpec.builder(primitive, "value").build())
+                .addStatement("int index = indexOf(key)")
+                .addStatement("return index >= 0 ? put(index, " + bits + ") : set(key, $T.$L, value)"
+                        , AutoConfig.Type.class, type)
+                .build());
+
+        accessorBuilder.addMethod(MethodSpec.methodBuilder("set" + name)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.BOOLEAN)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addParameter(ParameterSpec.builder(primitive, "value").build())
+                .addStatement("return put(index, " + bits + ")")
+                .build());
+    }
+
     private String generateDefaultLoader(List<ConfigItemInfo> items, String moduleName) {
 
         ClassName iDefaultValueLoader = ClassName.get("indi.arrowyi.autoconfig.configmanager"
-                , "DefaultValueLoader");
+                , "IndexedDefaultValueLoader");
 
         String className = (moduleName != null ? moduleName : items.get(0).key) + "1314DefaultDefaultLoader";
 
@@ -205,47 +353,161 @@ public class AutoConfigProcessor extends AbstractProcessor {
                 .addParameter(ParameterSpec.builder(string, "key").build())
                 .addParameter(ParameterSpec.builder(type, "type").build());
 
-        getDefaultValueMethod.beginControlFlow("switch(key)");
+        //the defaults are boxed once in the static array, the reading does not box them again
+        getDefaultValueMethod.addStatement("int index = indexOf(key)");
+        getDefaultValueMethod.addStatement("return index < 0 ? null : DEFAULTS[index]");
 
         for (ConfigItemInfo info : items) {
+            info.defaultLoader = className;
+        }
+
+        defaultLoaderBuilder.addMethod(getDefaultValueMethod.build());
+
+        generateIndexedDefaults(defaultLoaderBuilder, items);
+
+        //the primitive defaults, so that the primitive reading does not box the literal
+        addPrimitiveDefault(defaultLoaderBuilder, items, Type.INT, "getDefaultInt", TypeName.INT, Integer.class);
+        addPrimitiveDefault(defaultLoaderBuilder, items, Type.LONG, "getDefaultLong", TypeName.LONG, Long.class);
+        addPrimitiveDefault(defaultLoaderBuilder, items, Type.FLOAT, "getDefaultFloat", TypeName.FLOAT, Float.class);
+        addPrimitiveDefault(defaultLoaderBuilder, items, Type.DOUBLE, "getDefaultDouble", TypeName.DOUBLE, Double.class);
+        addPrimitiveDefault(defaultLoaderBuilder, items, Type.BOOLEAN, "getDefaultBoolean", TypeName.BOOLEAN, Boolean.class);
+
+        writeJavaFile(defaultLoaderBuilder, originatingElements(items));
+
+        return className;
+
+    }
+
+    //the defaults are kept in the flat arrays by the ordinal of the key, the boxed ones and the raw bits of the primitives
+    private void generateIndexedDefaults(TypeSpec.Builder loaderBuilder, List<ConfigItemInfo> items) {
+        List<CodeBlock> statements = new ArrayList<>();
+        addIndexOf(loaderBuilder, items, statements);
+
+        for (int i = 0; i < items.size(); i++) {
+            ConfigItemInfo info = items.get(i);
             switch (info.type) {
                 case STRING:
-                    getDefaultValueMethod.addStatement("case $S : return $S", info.key, info.defaultValue);
+                    statements.add(CodeBlock.of("DEFAULTS[$L] = $S", i, info.defaultValue));
                     break;
                 case INT:
-                case BOOLEAN:
-                case DOUBLE:
-                    getDefaultValueMethod.addStatement("case $S : return $L", info.key, info.defaultValue);
-                    break;
                 case LONG:
-                    getDefaultValueMethod.addStatement("case $S : return $Ll", info.key, info.defaultValue);
+                    statements.add(CodeBlock.of("DEFAULTS[$L] = " + (info.type == Type.LONG ? "$LL" : "$L"), i, info.defaultValue));
+                    statements.add(CodeBlock.of("BITS[$L] = $LL", i, info.defaultValue));
                     break;
                 case FLOAT:
-                    getDefaultValueMethod.addStatement("case $S : return $Lf", info.key, info.defaultValue);
+                    statements.add(CodeBlock.of("DEFAULTS[$L] = $Lf", i, info.defaultValue));
+                    statements.add(CodeBlock.of("BITS[$L] = Float.floatToRawIntBits($Lf)", i, info.defaultValue));
+                    break;
+                case DOUBLE:
+                    statements.add(CodeBlock.of("DEFAULTS[$L] = $L", i, info.defaultValue));
+                    statements.add(CodeBlock.of("BITS[$L] = Double.doubleToRawLongBits($L)", i, info.defaultValue));
+                    break;
+                case BOOLEAN:
+                    statements.add(CodeBlock.of("DEFAULTS[$L] = $L", i, info.defaultValue));
+                    statements.add(CodeBlock.of("BITS[$L] = $L", i, Boolean.TRUE.equals(info.defaultValue) ? "1L" : "0L"));
                     break;
             }
+        }
 
-            info.defaultLoader = className;
+        loaderBuilder.addField(FieldSpec.builder(Object[].class, "DEFAULTS"
+                , Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).initializer("new Object[$L]", items.size()).build());
+        loaderBuilder.addField(FieldSpec.builder(long[].class, "BITS"
+                , Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).initializer("new long[$L]", items.size()).build());
+        addStaticInitializer(loaderBuilder, statements);
+        loaderBuilder.addMethod(MethodSpec.methodBuilder("getDefaultValue")
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(Object.class)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addStatement("return DEFAULTS[index]").build());
+
+        addIndexedDefault(loaderBuilder, "getDefaultInt", TypeName.INT, "(int) BITS[index]");
+        addIndexedDefault(loaderBuilder, "getDefaultLong", TypeName.LONG, "BITS[index]");
+        addIndexedDefault(loaderBuilder, "getDefaultFloat", TypeName.FLOAT, "Float.intBitsToFloat((int) BITS[index])");
+        addIndexedDefault(loaderBuilder, "getDefaultDouble", TypeName.DOUBLE, "Double.longBitsToDouble(BITS[index])");
+        addIndexedDefault(loaderBuilder, "getDefaultBoolean", TypeName.BOOLEAN, "BITS[index] != 0");
+    }
+
+    private void addIndexedDefault(TypeSpec.Builder loaderBuilder, String methodName, TypeName primitive, String bits) {
+        loaderBuilder.addMethod(MethodSpec.methodBuilder(methodName)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(primitive)
+                .addParameter(ParameterSpec.builder(TypeName.INT, "index").build())
+                .addStatement("return " + bits).build());
+    }
+
+    private void addPrimitiveDefault(TypeSpec.Builder loaderBuilder, List<ConfigItemInfo> items, Type type
+            , String methodName, TypeName primitive, Class<?> boxed) {
+        boolean hasItem = false;
+        for (ConfigItemInfo info : items) {
+            if (info.type == type) {
+                hasItem = true;
+                break;
+            }
         }
 
-        getDefaultValueMethod.endControlFlow();
-        getDefaultValueMethod.addStatement("return null");
+        if (!hasItem) {
+            return;
+        }
 
-        defaultLoaderBuilder.addMethod(getDefaultValueMethod.build());
+        loaderBuilder.addMethod(MethodSpec.methodBuilder(methodName)
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(primitive)
+                .addParameter(ParameterSpec.builder(String.class, "key").build())
+                .addStatement("int index = indexOf(key)")
+                .beginControlFlow("if (index < 0 || !(DEFAULTS[index] instanceof $T))", boxed)
+                .addStatement("throw new $T($S + key)"
+                        , ClassName.get("indi.arrowyi.autoconfig.configmanager", "ConfigRuntimeException")
+                        , "no " + type + " default value --> ")
+                .endControlFlow()
+                .addStatement("return $L(index)", methodName)
+                .build());
+    }
 
-        JavaFile javaFile = JavaFile.builder("indi.arrowyi.autoconfig.configmanager"
-                , defaultLoaderBuilder.build()).build();
+    //a module could own thousands of keys, the jvm refuses the method over 64K bytes,
+    //so the key index and the defaults are not a big switch or array literal but a map filled by the chunks
+    private static final int CHUNK_SIZE = 500;
 
-        Filer filer = processingEnv.getFiler();
+    private void addIndexOf(TypeSpec.Builder builder, List<ConfigItemInfo> items, List<CodeBlock> statements) {
+        TypeName indexesType = ParameterizedTypeName.get(Map.class, String.class, Integer.class);
+        builder.addField(FieldSpec.builder(indexesType, "INDEXES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T<>($L)", HashMap.class, items.size() * 4 / 3 + 1).build());
 
-        try {
-            javaFile.writeTo(filer);
-        } catch (IOException e) {
-            e.printStackTrace();
+        for (int i = 0; i < items.size(); i++) {
+            statements.add(CodeBlock.of("INDEXES.put($S, $L)", items.get(i).key, i));
         }
 
-        return className;
+        builder.addMethod(MethodSpec.methodBuilder("indexOf")
+                .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.INT)
+                .addParameter(ParameterSpec.builder(String.class, "key").build())
+                .addStatement("$T index = INDEXES.get(key)", Integer.class)
+                .addStatement("return index == null ? -1 : index").build());
+    }
+
+    private void addStaticInitializer(TypeSpec.Builder builder, List<CodeBlock> statements) {
+        CodeBlock.Builder staticBlock = CodeBlock.builder();
+        for (String method : addChunkedMethods(builder, "init", statements, true)) {
+            staticBlock.addStatement("$L()", method);
+        }
+        builder.addStaticBlock(staticBlock.build());
+    }
+
+    private List<String> addChunkedMethods(TypeSpec.Builder builder, String name, List<CodeBlock> statements
+            , boolean isStatic, ParameterSpec... parameters) {
+        List<String> methods = new ArrayList<>();
+        for (int start = 0; start < statements.size(); start += CHUNK_SIZE) {
+            String methodName = name + methods.size();
+            MethodSpec.Builder method = MethodSpec.methodBuilder(methodName)
+                    .addModifiers(Modifier.PRIVATE).addParameters(Arrays.asList(parameters));
+            if (isStatic) {
+                method.addModifiers(Modifier.STATIC);
+            }
+
+            for (CodeBlock statement : statements.subList(start, Math.min(start + CHUNK_SIZE, statements.size()))) {
+                method.addStatement(statement);
+            }
 
+            builder.addMethod(method.build());
+            methods.add(methodName);
+        }
+
+        return methods;
     }
 
     private boolean generateRegisterFile(List<ConfigItemInfo> items, List<ConfigClass> accessors, List<ConfigClass> loaders
@@ -266,31 +528,32 @@ public class AutoConfigProcessor extends AbstractProcessor {
                 .addAnnotation(Override.class).addModifiers(Modifier.PUBLIC).returns(TypeName.VOID)
                 .addParameter(ParameterSpec.builder(autoConfig, "config").build());
 
+        List<CodeBlock> keyStatements = new ArrayList<>();
         for (ConfigItemInfo configItemInfo : items) {
             switch (configItemInfo.type) {
                 case STRING:
-                    registerKeyMethod.addStatement("config.registerString($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerString($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 case INT:
-                    registerKeyMethod.addStatement("config.registerInt($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerInt($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 case LONG:
-                    registerKeyMethod.addStatement("config.registerLong($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerLong($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 case BOOLEAN:
-                    registerKeyMethod.addStatement("config.registerBoolean($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerBoolean($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 case FLOAT:
-                    registerKeyMethod.addStatement("config.registerFloat($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerFloat($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 case DOUBLE:
-                    registerKeyMethod.addStatement("config.registerDouble($S, $S, $S)"
-                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader);
+                    keyStatements.add(CodeBlock.of("config.registerDouble($S, $S, $S)"
+                            , configItemInfo.key, configItemInfo.accessor, configItemInfo.defaultLoader));
                     break;
                 default:
                     break;
@@ -298,6 +561,22 @@ public class AutoConfigProcessor extends AbstractProcessor {
 
         }
 
+        //the keys and the default values are bulk loaded from the registry resource if it could be found,
+        //the generated calls are only the fallback
+        registerKeyMethod.beginControlFlow("if (!$T.loadRegistry($L.class))", autoConfig, className);
+        for (String method : addChunkedMethods(registerClassBuilder, "registerKeys", keyStatements, false
+                , ParameterSpec.builder(autoConfig, "config").build())) {
+            registerKeyMethod.addStatement("$L(config)", method);
+        }
+
+        if (defaultLoaderName != null && !defaultLoaderName.isEmpty()) {
+            ClassName defaultLoader = ClassName.get("indi.arrowyi.autoconfig.configmanager"
+                    , defaultLoaderName);
+            registerKeyMethod.addStatement("config.registerDefaultValueLoader($S, new $T())",
+                    defaultLoaderName, defaultLoader);
+        }
+        registerKeyMethod.endControlFlow();
+
         for (ConfigClass configClass : accessors) {
             ClassName accessorClass = ClassName.get(configClass.classType);
             registerKeyMethod.addStatement("config.registerAccessor($S, new $T())",
@@ -318,13 +597,6 @@ public class AutoConfigProcessor extends AbstractProcessor {
                     configClass.name, loaderClass);
         }
 
-        if (defaultLoaderName != null && !defaultLoaderName.isEmpty()) {
-            ClassName defaultLoader = ClassName.get("indi.arrowyi.autoconfig.configmanager"
-                    , defaultLoaderName);
-            registerKeyMethod.addStatement("config.registerDefaultValueLoader($S, new $T())",
-                    defaultLoaderName, defaultLoader);
-        }
-
 
         registerClassBuilder.addMethod(registerKeyMethod.build());
 
@@ -341,16 +613,205 @@ public class AutoConfigProcessor extends AbstractProcessor {
 
         registerClassBuilder.addAnnotation(annotation.build());
 
-        JavaFile javaFile = JavaFile.builder("indi.arrowyi.autoconfig.configmanager"
-                , registerClassBuilder.build()).build();
+        Set<Element> originating = originatingElements(items);
+        for (ConfigClass configClass : accessors) {
+            originating.add(configClass.classType);
+        }
+        for (ConfigClass configClass : loaders) {
+            originating.add(configClass.classType);
+        }
 
-        Filer filer = processingEnv.getFiler();
+        writeJavaFile(registerClassBuilder, originating);
+
+        List<String> accessorNames = new ArrayList<>();
+        List<String> loaderNames = new ArrayList<>();
+        for (ConfigClass configClass : accessors) {
+            accessorNames.add(configClass.name);
+        }
+        for (ConfigClass configClass : loaders) {
+            loaderNames.add(configClass.name);
+        }
+        if (defaultAccessorName != null && !defaultAccessorName.isEmpty()) {
+            accessorNames.add(defaultAccessorName);
+        }
+        if (defaultLoaderName != null && !defaultLoaderName.isEmpty()) {
+            loaderNames.add(defaultLoaderName);
+        }
+        generateRegisterManifest("indi.arrowyi.autoconfig.configmanager." + className, items
+                , accessorNames, loaderNames, originating);
+        generateRegistry("indi.arrowyi.autoconfig.configmanager." + className, items, defaultLoaderName, originating);
+
+        return true;
+    }
+
+    //the keys, accessors and loaders owned by the register, the lazy loading finds the register of a key by it
+    private void generateRegisterManifest(String registerName, List<ConfigItemInfo> items, List<String> accessorNames
+            , List<String> loaderNames, Set<Element> originating) {
+        StringBuilder manifest = new StringBuilder();
+        for (ConfigItemInfo info : items) {
+            manifest.append("k ").append(info.key).append('\n');
+        }
+        for (String name : accessorNames) {
+            manifest.append("a ").append(name).append('\n');
+        }
+        for (String name : loaderNames) {
+            manifest.append("l ").append(name).append('\n');
+        }
 
         try {
-            javaFile.writeTo(filer);
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, ""
+                    , "META-INF/autoconfig/" + registerName, originating.toArray(new Element[0]));
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(manifest.toString());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
+    }
+
+    //the binary registry of the register, read by ConfigRegistry in one pass. All in big endian :
+    //magic, version, the names of the accessors and loaders, then every key with its type ordinal, the indexes of its
+    //accessor and loader names, and its default value if it is served by the default loader of the module
+    private void generateRegistry(String registerName, List<ConfigItemInfo> items, String defaultLoaderName
+            , Set<Element> originating) {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        for (ConfigItemInfo info : items) {
+            for (String name : new String[]{info.accessor, info.defaultLoader}) {
+                if (!nameIndexes.containsKey(name)) {
+                    nameIndexes.put(name, names.size());
+                    names.add(name);
+                }
+            }
+        }
+
+        int defaultLoaderIndex = nameIndexes.getOrDefault(defaultLoaderName, -1);
+
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, ""
+                    , "META-INF/autoconfig/" + registerName + ".registry", originating.toArray(new Element[0]));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(resource.openOutputStream()))) {
+                out.writeInt(REGISTRY_MAGIC);
+                out.writeShort(REGISTRY_VERSION);
+                out.writeInt(names.size());
+                for (String name : names) {
+                    writeRegistryString(out, name);
+                }
+
+                out.writeInt(defaultLoaderIndex);
+                out.writeInt(items.size());
+                for (ConfigItemInfo info : items) {
+                    writeRegistryString(out, info.key);
+                    out.writeByte(AutoConfig.Type.valueOf(info.type.name()).ordinal());
+                    out.writeInt(nameIndexes.get(info.accessor));
+                    int loaderIndex = nameIndexes.get(info.defaultLoader);
+                    out.writeInt(loaderIndex);
+                    if (loaderIndex == defaultLoaderIndex) {
+                        writeRegistryDefault(out, info);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static final int REGISTRY_MAGIC = 0x41435247;
+    private static final int REGISTRY_VERSION = 1;
+
+    private void writeRegistryDefault(DataOutputStream out, ConfigItemInfo info) throws IOException {
+        switch (info.type) {
+            case INT:
+                out.writeInt((Integer) info.defaultValue);
+                break;
+            case LONG:
+                out.writeLong((Long) info.defaultValue);
+                break;
+            case FLOAT:
+                out.writeFloat((Float) info.defaultValue);
+                break;
+            case DOUBLE:
+                out.writeDouble((Double) info.defaultValue);
+                break;
+            case BOOLEAN:
+                out.writeBoolean((Boolean) info.defaultValue);
+                break;
+            case STRING:
+                writeRegistryString(out, (String) info.defaultValue);
+                break;
+        }
+    }
+
+    //not the modified utf-8 of writeUTF, the length is the count of the utf-8 bytes
+    private void writeRegistryString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private boolean generateConfigHandles(List<ConfigItemInfo> items, String moduleName) {
+        if (items.isEmpty()) {
+            return false;
+        }
+
+        String className = (moduleName != null ? moduleName : items.get(0).key) + "Configs";
+
+        ClassName autoConfig = ClassName.get("indi.arrowyi.autoconfig.configmanager", "AutoConfig");
+
+        TypeSpec.Builder handlesBuilder = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        Set<String> fieldNames = new HashSet<>();
+        for (ConfigItemInfo info : items) {
+            String handleClass;
+            String factory;
+            switch (info.type) {
+                case INT:
+                    handleClass = "IntConfig";
+                    factory = "intConfig";
+                    break;
+                case LONG:
+                    handleClass = "LongConfig";
+                    factory = "longConfig";
+                    break;
+                case FLOAT:
+                    handleClass = "FloatConfig";
+                    factory = "floatConfig";
+                    break;
+                case DOUBLE:
+                    handleClass = "DoubleConfig";
+                    factory = "doubleConfig";
+                    break;
+                case BOOLEAN:
+                    handleClass = "BooleanConfig";
+                    factory = "booleanConfig";
+                    break;
+                case STRING:
+                    handleClass = "StringConfig";
+                    factory = "stringConfig";
+                    break;
+                default:
+                    continue;
+            }
+
+            //the same field name could be used in the different classes of the module
+            String fieldName = info.fieldName;
+            if (!fieldNames.add(fieldName)) {
+                fieldName = info.ownerName + "_" + info.fieldName;
+                if (!fieldNames.add(fieldName)) {
+                    printMessageE("generateConfigHandles : duplicated handle name --> " + fieldName);
+                    continue;
+                }
+            }
+
+            ClassName handle = ClassName.get("indi.arrowyi.autoconfig.configmanager", handleClass);
+            handlesBuilder.addField(FieldSpec.builder(handle, fieldName
+                            , Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.$L($S)", autoConfig, factory, info.key).build());
+        }
+
+        writeJavaFile(handlesBuilder, originatingElements(items));
 
         return true;
     }
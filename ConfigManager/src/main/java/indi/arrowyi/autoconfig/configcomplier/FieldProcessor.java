@@ -290,6 +290,9 @@ class FieldProcessor {
             }
 
             configItemInfo.key = key;
+            configItemInfo.fieldName = variableElement.getSimpleName().toString();
+            configItemInfo.ownerName = variableElement.getEnclosingElement().getSimpleName().toString();
+            configItemInfo.owner = variableElement.getEnclosingElement();
 
             if ((configItemInfo.defaultLoader == null || configItemInfo.defaultLoader.isEmpty()) && configItemInfo.defaultValue == null) {
                 utils.printMessageE("handleAutoConfigRegister : the element's default loader is null and default value is null --> "
@@ -81,6 +81,23 @@ public final class AutoConfig {
         void onConfigChanged(String item, Object value);
     }
 
+    //receives all the changes of a committed batch in one call, the map is read only
+    public interface ConfigBatchChangedListener {
+        void onConfigsChanged(Map<String, Object> changes);
+    }
+
+    //what to do when the notifying queue is full
+    public enum OverflowPolicy {
+        //the setter waits until there is room in the queue
+        BLOCK,
+        //the value replaces the queued change of the same key, and waits like BLOCK if there is none
+        COALESCE,
+        //the oldest queued change is dropped
+        DROP_OLDEST
+    }
+
+    public static final int DEFAULT_NOTIFY_QUEUE_CAPACITY = 4096;
+
     private static AutoConfig sInstance = null;
 
     private AutoConfig() {
@@ -108,6 +125,52 @@ public final class AutoConfig {
         });
     }
 
+    public static void loadConfigRegisterInParallel() {
+        loadConfigRegisterInParallel(null);
+    }
+
+    //the registers are created and run on the common fork join pool, the keys could use the accessors or
+    //loaders of any other register, they are bound when those are registered.
+    //if the loader is null, will use the current thread context loader
+    public static void loadConfigRegisterInParallel(ClassLoader loader) {
+        ClassLoader registerLoader = classLoaderOf(loader);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (String className : LazyConfigRegisters.registerClassNames(registerLoader)) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                ConfigRegister register = LazyConfigRegisters.newRegister(className, registerLoader);
+                if (register != null) {
+                    AutoConfig.sInstance.runRegister(register);
+                }
+            }));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    public static void loadConfigRegisterLazily() {
+        loadConfigRegisterLazily(null);
+    }
+
+    //a register is created and run only when one of its keys is touched first,
+    //the registers without the manifest written by the processor are run at once.
+    //if the loader is null, will use the current thread context loader
+    public static void loadConfigRegisterLazily(ClassLoader loader) {
+        ClassLoader classLoader = classLoaderOf(loader);
+        for (String className : steward.lazyRegisters.load(classLoader)) {
+            ConfigRegister register = LazyConfigRegisters.newRegister(className, classLoader);
+            if (register != null) {
+                AutoConfig.sInstance.runRegister(register);
+            }
+        }
+    }
+
+    private static ClassLoader classLoaderOf(ClassLoader loader) {
+        ClassLoader classLoader = (loader != null ? loader : Thread.currentThread().getContextClassLoader());
+        return classLoader != null ? classLoader : AutoConfig.class.getClassLoader();
+    }
+
     public static void addChangedListener(String key, ConfigChangedListener listener) {
         sInstance.doAddChangedListener(key, listener);
     }
@@ -116,6 +179,14 @@ public final class AutoConfig {
         sInstance.doRemoveChangedListener(key, listener);
     }
 
+    public static void addBatchChangedListener(ConfigBatchChangedListener listener) {
+        sInstance.batchListeners.addIfAbsent(listener);
+    }
+
+    public static void removeBatchChangedListener(ConfigBatchChangedListener listener) {
+        sInstance.batchListeners.remove(listener);
+    }
+
 
     public static void registerAccessor(String name, ConfigAccessor accessor) {
         sInstance.doRegisterAccessor(name, accessor);
@@ -158,62 +229,178 @@ public final class AutoConfig {
     }
 
     public static boolean setInt(String key, int value) {
-        return set(key, Integer.valueOf(value));
+        return sInstance.doSetInt(steward.findItem(key), value);
+    }
+
+    static boolean setInt(ConfigItem item, int value) {
+        return sInstance.doSetInt(item, value);
     }
 
     public static boolean setLong(String key, long value) {
-        return set(key, Long.valueOf(value));
+        return sInstance.doSetLong(steward.findItem(key), value);
+    }
+
+    static boolean setLong(ConfigItem item, long value) {
+        return sInstance.doSetLong(item, value);
     }
 
     public static boolean setFloat(String key, float value) {
-        return set(key, Float.valueOf(value));
+        return sInstance.doSetFloat(steward.findItem(key), value);
+    }
+
+    static boolean setFloat(ConfigItem item, float value) {
+        return sInstance.doSetFloat(item, value);
     }
 
     public static boolean setDouble(String key, double value) {
-        return set(key, Double.valueOf(value));
+        return sInstance.doSetDouble(steward.findItem(key), value);
+    }
+
+    static boolean setDouble(ConfigItem item, double value) {
+        return sInstance.doSetDouble(item, value);
     }
 
     public static boolean setBoolean(String key, boolean value) {
-        return set(key, Boolean.valueOf(value));
+        return sInstance.doSetBoolean(steward.findItem(key), value);
+    }
+
+    static boolean setBoolean(ConfigItem item, boolean value) {
+        return sInstance.doSetBoolean(item, value);
     }
 
     public static boolean setString(String key, String value) {
         return set(key, value);
     }
 
+    public static ConfigBatch batch() {
+        return new ConfigBatch();
+    }
+
+    static boolean commit(ConfigBatch batch) {
+        return sInstance.doCommit(batch);
+    }
+
     public static Object get(String key) {
+        profile(key);
         return sInstance.doGet(key);
     }
 
+    static Object get(ConfigItem item) {
+        if (item == null) {
+            return null;
+        }
+
+        profile(item.getKey());
+        return steward.getValue(item);
+    }
+
+    static boolean set(ConfigItem item, Object value) {
+        return item != null && sInstance.doSet(item, value);
+    }
+
     public static int getInt(String key) {
-        return (Integer) get(key);
+        profile(key);
+        ConfigItem item = steward.getItem(key);
+        return item != null ? steward.getInt(item) : (Integer) sInstance.doGet(key);
+    }
+
+    static int getInt(ConfigItem item) {
+        profile(item.getKey());
+        return steward.getInt(item);
     }
 
     public static long getLong(String key) {
-        return (Long) get(key);
+        profile(key);
+        ConfigItem item = steward.getItem(key);
+        return item != null ? steward.getLong(item) : (Long) sInstance.doGet(key);
+    }
+
+    static long getLong(ConfigItem item) {
+        profile(item.getKey());
+        return steward.getLong(item);
     }
 
     public static float getFloat(String key) {
-        Object value = get(key);
-        if (value instanceof Double) {
-            return ((Double) value).floatValue();
-        }
+        profile(key);
+        ConfigItem item = steward.getItem(key);
+        return item != null ? steward.getFloat(item) : (Float) sInstance.doGet(key);
+    }
 
-        return (Float) value;
+    static float getFloat(ConfigItem item) {
+        profile(item.getKey());
+        return steward.getFloat(item);
     }
 
     public static double getDouble(String key) {
-        return (Double) get(key);
+        profile(key);
+        ConfigItem item = steward.getItem(key);
+        return item != null ? steward.getDouble(item) : (Double) sInstance.doGet(key);
+    }
+
+    static double getDouble(ConfigItem item) {
+        profile(item.getKey());
+        return steward.getDouble(item);
     }
 
     public static boolean getBoolean(String key) {
-        return (Boolean) get(key);
+        profile(key);
+        ConfigItem item = steward.getItem(key);
+        return item != null ? steward.getBoolean(item) : (Boolean) sInstance.doGet(key);
+    }
+
+    static boolean getBoolean(ConfigItem item) {
+        profile(item.getKey());
+        return steward.getBoolean(item);
     }
 
     public static String getString(String key) {
         return (String) get(key);
     }
 
+    //all the keys read consistently, the snapshot is shared until any of the values could have changed
+    public static ConfigSnapshot snapshot() {
+        return steward.snapshot(null);
+    }
+
+    public static ConfigSnapshot snapshot(String... keys) {
+        return steward.snapshot(keys);
+    }
+
+    public static IntConfig intConfig(String key) {
+        return new IntConfig(key);
+    }
+
+    public static LongConfig longConfig(String key) {
+        return new LongConfig(key);
+    }
+
+    public static FloatConfig floatConfig(String key) {
+        return new FloatConfig(key);
+    }
+
+    public static DoubleConfig doubleConfig(String key) {
+        return new DoubleConfig(key);
+    }
+
+    public static BooleanConfig booleanConfig(String key) {
+        return new BooleanConfig(key);
+    }
+
+    public static StringConfig stringConfig(String key) {
+        return new StringConfig(key);
+    }
+
+    //the global version moves whenever any value could have changed, and the version of a key whenever its value
+    //could have changed, so a value derived from the config could be revalidated by comparing them
+    public static long version() {
+        return steward.getVersion();
+    }
+
+    //-1 if the key is not defined
+    public static long versionOf(String key) {
+        return steward.versionOf(key);
+    }
+
     public static boolean isKeyDefined(String key) {
         return sInstance.doIsKeyDefined(key);
     }
@@ -226,65 +413,182 @@ public final class AutoConfig {
         return sInstance.doReset(key);
     }
 
+    //cache the resolved value of the key, so that the reading will not hit the accessor and loader again until it is invalidated
+    public static boolean enableCache(String key) {
+        return steward.setCacheEnabled(key, true);
+    }
+
+    public static boolean disableCache(String key) {
+        return steward.setCacheEnabled(key, false);
+    }
 
-    private Map<String, List<ConfigChangedListener>> keyListeners = new ConcurrentHashMap<>();
-    private Executor notifyExecutor = new ThreadPoolExecutor(0
-            , Runtime.getRuntime().availableProcessors(),
-            60L, TimeUnit.SECONDS,
-            new SynchronousQueue<Runnable>());
+    //for the keys read millions of times, the resolved value is kept in the striped slots and revalidated by the
+    //version of the key, so a read costs one version check and an array load. A write is seen by all the threads
+    //once its version is bumped, the value changed by the accessor itself needs onValueChanged to be seen
+    public static boolean enableNearCache(String key) {
+        return steward.setNearCacheEnabled(key, true);
+    }
+
+    public static boolean disableNearCache(String key) {
+        return steward.setNearCacheEnabled(key, false);
+    }
+
+    public static void invalidate(String key) {
+        steward.invalidate(key);
+    }
+
+    public static void invalidateAll() {
+        steward.invalidateAll();
+    }
+
+    //called by an accessor whose value has been changed out of AutoConfig (a file edited, a remote push ...),
+    //the cache of the key is dropped and the listeners are notified as if it was set by setXXX
+    public static void onValueChanged(String key) {
+        sInstance.doValueChanged(key);
+    }
+
+    public static long getCacheHitCount() {
+        return steward.getCacheHitCount();
+    }
+
+    public static long getCacheMissCount() {
+        return steward.getCacheMissCount();
+    }
+
+    public static void setNotifyQueueCapacity(int capacity) {
+        sInstance.notifier.setCapacity(capacity);
+    }
+
+    public static void setNotifyOverflowPolicy(OverflowPolicy policy) {
+        sInstance.notifier.setPolicy(policy);
+    }
+
+    //only the latest value of a key is delivered, the superseded changes are counted as coalesced
+    public static void setNotifyCoalescing(boolean coalescing) {
+        sInstance.notifier.setCoalescing(coalescing);
+    }
+
+    //how long a change waits for the newer ones of the same key in the coalescing mode
+    public static void setNotifyDebounceWindow(long debounce, TimeUnit unit) {
+        sInstance.notifier.setDebounceWindow(debounce, unit);
+    }
+
+    public static ConfigNotifyStats getNotifyStats() {
+        return sInstance.notifier.getStats();
+    }
+
+    //the reads, writes, misses and latencies are reported to it, null means no metrics (the default).
+    //See JmxConfigMetrics
+    public static void setMetrics(ConfigMetrics metrics) {
+        steward.setMetrics(metrics);
+    }
+
+    public static ConfigMetrics getMetrics() {
+        return steward.getMetrics();
+    }
+
+    //samples the reads to find the hottest keys, they are the ones worth a typed handle or the cache.
+    //Walking the stack for the call sites is costly, so it is only done for the sampled reads when asked
+    public static void startProfiling() {
+        startProfiling(ConfigProfiler.DEFAULT_CAPACITY, ConfigProfiler.DEFAULT_SAMPLE_RATE, false);
+    }
+
+    public static void startProfiling(int capacity, int sampleRate, boolean callSites) {
+        ConfigProfiler cur = new ConfigProfiler(capacity, sampleRate, callSites);
+        profiler = cur;
+        activeProfiler = cur;
+    }
+
+    //the result of the stopped profiling is kept until the next start
+    public static void stopProfiling() {
+        activeProfiler = null;
+    }
+
+    public static boolean isProfiling() {
+        return activeProfiler != null;
+    }
+
+    public static List<ConfigHotSpot> getHotKeys(int count) {
+        ConfigProfiler cur = profiler;
+        return cur != null ? cur.getHotKeys(count) : new ArrayList<>();
+    }
+
+    public static List<ConfigHotSpot> getHotCallSites(int count) {
+        ConfigProfiler cur = profiler;
+        return cur != null ? cur.getHotCallSites(count) : new ArrayList<>();
+    }
+
+
+    private final ConfigListenerRegistry keyListeners = new ConfigListenerRegistry();
+    private final CopyOnWriteArrayList<ConfigBatchChangedListener> batchListeners = new CopyOnWriteArrayList<>();
+    private final ConfigNotifier notifier = new ConfigNotifier(this::dispatchChanged, this::dispatchBatchChanged
+            , Runtime.getRuntime().availableProcessors(), DEFAULT_NOTIFY_QUEUE_CAPACITY, OverflowPolicy.COALESCE);
 
     static final ConfigSteward steward = new ConfigSteward();
 
-    private Set<Class<?>> registers = new HashSet<>();
+    //the reads only check the active one, the other one keeps the result after the profiling is stopped
+    private static volatile ConfigProfiler activeProfiler = null;
+    private static volatile ConfigProfiler profiler = null;
 
-    private boolean checkRegisterHasRan(Class<?> registerClass) {
-        return registers.contains(registerClass);
+    private static void profile(String key) {
+        ConfigProfiler cur = activeProfiler;
+        if (cur != null) {
+            cur.onRead(key);
+        }
     }
 
+    //the lazy registers are run by the steward on the thread touching the key, so the set is a concurrent one
+    private final Set<Class<?>> registers = ConcurrentHashMap.newKeySet();
+
     private void runRegister(ConfigRegister register) {
-        if (checkRegisterHasRan(register.getClass())) {
+        if (!registers.add(register.getClass())) {
             return;
         }
 
         register.register(this);
-        registers.add(register.getClass());
     }
 
-    private void doAddChangedListener(String key, ConfigChangedListener listener) {
-
-        List<ConfigChangedListener> listeners = keyListeners.get(key);
+    //called by the generated registers, return false if the register has no registry resource.
+    //It is public since the generated register could be loaded by another class loader than AutoConfig
+    public static boolean loadRegistry(Class<? extends ConfigRegister> registerClass) {
+        return ConfigRegistry.load(registerClass, steward);
+    }
 
-        if (listeners == null) {
-            if (!steward.isKeyDefined(key)) {
-                ConfigLog.e("key : " + key + " has not been defined in settings yet !!!");
-                return;
-            }
+    static void runLazyRegister(ConfigRegister register) {
+        sInstance.runRegister(register);
+    }
 
-            listeners = new ArrayList<>();
-            keyListeners.put(key, listeners);
+    private void doAddChangedListener(String key, ConfigChangedListener listener) {
+        if (!steward.isKeyDefined(key)) {
+            steward.metrics.onUnknownKey(key);
+            ConfigLog.e("key : " + key + " has not been defined in settings yet !!!");
+            return;
         }
 
-        listeners.add(listener);
+        keyListeners.add(key, listener);
     }
 
     private void doRemoveChangedListener(String key, ConfigChangedListener listener) {
-        List<ConfigChangedListener> listeners = keyListeners.get(key);
-
-        if (listeners == null) {
+        if (!keyListeners.hasListeners(key)) {
             ConfigLog.e("removeChangedListener didn't have key listener");
             return;
         }
 
-        listeners.remove(listener);
+        keyListeners.remove(key, listener);
     }
 
 
+    //a new name is not used by any key yet, so nothing cached needs to be dropped
     private void doRegisterAccessor(String name, ConfigAccessor accessor) {
-        steward.configFlyweightFactory.registerAccessor(name, accessor);
+        if (steward.configFlyweightFactory.registerAccessor(name, accessor)) {
+            steward.invalidateAll();
+        }
     }
 
     private void doRegisterDefaultValueLoader(String name, DefaultValueLoader loader) {
-        steward.configFlyweightFactory.registerDefaultLoader(name, loader);
+        if (steward.configFlyweightFactory.registerDefaultLoader(name, loader)) {
+            steward.invalidateAll();
+        }
     }
 
     private void doRegister(String key, AutoConfig.Type type, String accessor, String defaultLoader) {
@@ -293,15 +597,116 @@ public final class AutoConfig {
 
 
     private boolean doSet(String key, Object value) {
-        switch (steward.setValue(key, value)) {
+        return handleSetResult(key, value, steward.setValue(key, value));
+    }
+
+    private boolean doSet(ConfigItem item, Object value) {
+        return handleSetResult(item.getKey(), value, steward.setValue(item, value));
+    }
+
+    private boolean doCommit(ConfigBatch batch) {
+        Map<ConfigItem, Object> values = batch.getValues();
+        if (values.isEmpty()) {
+            return true;
+        }
+
+        Map<String, Object> changes = steward.setValues(values);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            onSettingItemChanged(change.getKey(), change.getValue());
+        }
+
+        if (!changes.isEmpty() && !batchListeners.isEmpty()) {
+            notifier.notifyBatch(Collections.unmodifiableMap(changes));
+        }
+
+        return changes.size() == values.size();
+    }
+
+    private boolean handleSetResult(String key, Object value, int res) {
+        if (res == 1) {
+            onSettingItemChanged(key, value);
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean doSetInt(ConfigItem item, int value) {
+        if (item == null) {
+            return false;
+        }
+
+        int res = steward.setInt(item, value);
+        //box the value only when there is someone listening to it
+        if (res == 1 && keyListeners.hasListeners(item.getKey())) {
+            onSettingItemChanged(item.getKey(), Integer.valueOf(value));
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean doSetLong(ConfigItem item, long value) {
+        if (item == null) {
+            return false;
+        }
+
+        int res = steward.setLong(item, value);
+        //box the value only when there is someone listening to it
+        if (res == 1 && keyListeners.hasListeners(item.getKey())) {
+            onSettingItemChanged(item.getKey(), Long.valueOf(value));
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean doSetFloat(ConfigItem item, float value) {
+        if (item == null) {
+            return false;
+        }
+
+        int res = steward.setFloat(item, value);
+        //box the value only when there is someone listening to it
+        if (res == 1 && keyListeners.hasListeners(item.getKey())) {
+            onSettingItemChanged(item.getKey(), Float.valueOf(value));
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean doSetDouble(ConfigItem item, double value) {
+        if (item == null) {
+            return false;
+        }
+
+        int res = steward.setDouble(item, value);
+        //box the value only when there is someone listening to it
+        if (res == 1 && keyListeners.hasListeners(item.getKey())) {
+            onSettingItemChanged(item.getKey(), Double.valueOf(value));
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean doSetBoolean(ConfigItem item, boolean value) {
+        if (item == null) {
+            return false;
+        }
+
+        int res = steward.setBoolean(item, value);
+        //box the value only when there is someone listening to it
+        if (res == 1 && keyListeners.hasListeners(item.getKey())) {
+            onSettingItemChanged(item.getKey(), Boolean.valueOf(value));
+        }
+
+        return checkSetResult(res);
+    }
+
+    private boolean checkSetResult(int res) {
+        switch (res) {
             case 2:
+            case 1:
                 return true;
             case 0:
                 return false;
-            case 1: {
-                onSettingItemChanged(key, value);
-                return true;
-            }
             default:
                 ConfigLog.e("setValue wrong res");
                 return false;
@@ -320,6 +725,12 @@ public final class AutoConfig {
         return steward.getKeyType(key);
     }
 
+    private void doValueChanged(String key) {
+        if (steward.changedOutside(key) && keyListeners.hasListeners(key)) {
+            onSettingItemChanged(key, steward.getCurValue(key));
+        }
+    }
+
     private boolean doReset(String key) {
         boolean res = steward.reset(key);
         if (res) {
@@ -330,14 +741,37 @@ public final class AutoConfig {
 
 
     private void onSettingItemChanged(String item, Object value) {
-        List<ConfigChangedListener> listeners = keyListeners.get(item);
-        if (listeners != null) {
-            notifyExecutor.execute(() -> {
-                for (ConfigChangedListener listener : listeners) {
-                    listener.onConfigChanged(item, value);
-                }
-            });
+        if (keyListeners.hasListeners(item)) {
+            notifier.notify(item, value);
+        }
+    }
+
+    private void dispatchChanged(String item, Object value) {
+        ConfigChangedListener[] listeners = keyListeners.get(item);
+        if (listeners == null) {
+            return;
+        }
+
+        ConfigMetrics metrics = steward.metrics;
+        long start = metrics != ConfigMetrics.NOOP ? System.nanoTime() : 0;
+        for (ConfigChangedListener listener : listeners) {
+            listener.onConfigChanged(item, value);
+        }
+
+        if (metrics != ConfigMetrics.NOOP) {
+            metrics.onListenerDispatched(System.nanoTime() - start);
+        }
+    }
+
+    private void dispatchBatchChanged(Map<String, Object> changes) {
+        ConfigMetrics metrics = steward.metrics;
+        long start = metrics != ConfigMetrics.NOOP ? System.nanoTime() : 0;
+        for (ConfigBatchChangedListener listener : batchListeners) {
+            listener.onConfigsChanged(changes);
+        }
 
+        if (metrics != ConfigMetrics.NOOP) {
+            metrics.onListenerDispatched(System.nanoTime() - start);
         }
     }
 }
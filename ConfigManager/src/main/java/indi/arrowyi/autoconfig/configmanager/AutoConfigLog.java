@@ -21,4 +21,14 @@ public interface AutoConfigLog {
     void error(String msg);
 
     void warning(String msg);
+
+    //the debug messages go to the warning by default
+    default void debug(String msg) {
+        warning(msg);
+    }
+
+    //the debug messages are not even built when it is false
+    default boolean isDebugEnabled() {
+        return true;
+    }
 }
@@ -0,0 +1,32 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+public final class BooleanConfig extends ConfigHandle {
+
+    BooleanConfig(String key) {
+        super(key, AutoConfig.Type.BOOLEAN);
+    }
+
+    public boolean get() {
+        return AutoConfig.getBoolean(boundItem());
+    }
+
+    public boolean set(boolean value) {
+        return AutoConfig.setBoolean(boundItem(), value);
+    }
+}
@@ -19,8 +19,66 @@ package indi.arrowyi.autoconfig.configmanager;
 
 
 import javax.validation.constraints.NotNull;
+import java.util.Map;
 
 public interface ConfigAccessor {
     boolean set(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object value);
     Object get(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object defaultValue);
+
+    //the primitive accessing, override them to avoid the boxing, the default ones bridge to the set and get above
+    default int getInt(@NotNull String key, int defaultValue) {
+        return (Integer) get(key, AutoConfig.Type.INT, defaultValue);
+    }
+
+    default long getLong(@NotNull String key, long defaultValue) {
+        return (Long) get(key, AutoConfig.Type.LONG, defaultValue);
+    }
+
+    default float getFloat(@NotNull String key, float defaultValue) {
+        Object value = get(key, AutoConfig.Type.FLOAT, defaultValue);
+        if (value instanceof Double) {
+            return ((Double) value).floatValue();
+        }
+
+        return (Float) value;
+    }
+
+    default double getDouble(@NotNull String key, double defaultValue) {
+        return (Double) get(key, AutoConfig.Type.DOUBLE, defaultValue);
+    }
+
+    default boolean getBoolean(@NotNull String key, boolean defaultValue) {
+        return (Boolean) get(key, AutoConfig.Type.BOOLEAN, defaultValue);
+    }
+
+    default boolean setInt(@NotNull String key, int value) {
+        return set(key, AutoConfig.Type.INT, value);
+    }
+
+    default boolean setLong(@NotNull String key, long value) {
+        return set(key, AutoConfig.Type.LONG, value);
+    }
+
+    default boolean setFloat(@NotNull String key, float value) {
+        return set(key, AutoConfig.Type.FLOAT, value);
+    }
+
+    default boolean setDouble(@NotNull String key, double value) {
+        return set(key, AutoConfig.Type.DOUBLE, value);
+    }
+
+    default boolean setBoolean(@NotNull String key, boolean value) {
+        return set(key, AutoConfig.Type.BOOLEAN, value);
+    }
+
+    //the values of a batch which belong to this accessor, the types have been checked already.
+    //override it to write them in one go, the default one sets them one by one
+    default boolean setAll(@NotNull Map<String, Object> values, @NotNull Map<String, AutoConfig.Type> types) {
+        boolean res = true;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            res &= set(entry.getKey(), types.get(entry.getKey()), entry.getValue());
+        }
+
+        return res;
+    }
 }
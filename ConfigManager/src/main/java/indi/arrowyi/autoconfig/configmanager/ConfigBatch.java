@@ -0,0 +1,95 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//collects the changes of many keys and commits them at once, the keys and types are checked when they are added,
+//a batch with any invalid change commits nothing
+public final class ConfigBatch {
+
+    private final Map<ConfigItem, Object> values = new LinkedHashMap<>();
+    private boolean valid = true;
+    private boolean committed = false;
+
+    ConfigBatch() {
+    }
+
+    public ConfigBatch setInt(String key, int value) {
+        return put(key, AutoConfig.Type.INT, value);
+    }
+
+    public ConfigBatch setLong(String key, long value) {
+        return put(key, AutoConfig.Type.LONG, value);
+    }
+
+    public ConfigBatch setFloat(String key, float value) {
+        return put(key, AutoConfig.Type.FLOAT, value);
+    }
+
+    public ConfigBatch setDouble(String key, double value) {
+        return put(key, AutoConfig.Type.DOUBLE, value);
+    }
+
+    public ConfigBatch setBoolean(String key, boolean value) {
+        return put(key, AutoConfig.Type.BOOLEAN, value);
+    }
+
+    public ConfigBatch setString(String key, String value) {
+        return put(key, AutoConfig.Type.STRING, value);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    //return true only if all the changes are committed
+    public boolean commit() {
+        if (committed) {
+            ConfigLog.e("the batch has already been committed");
+            return false;
+        }
+
+        committed = true;
+        return valid && AutoConfig.commit(this);
+    }
+
+    Map<ConfigItem, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    private ConfigBatch put(String key, AutoConfig.Type type, Object value) {
+        ConfigItem item = AutoConfig.steward.findItem(key);
+        if (item == null) {
+            valid = false;
+        } else if (item.getType() != type || value == null) {
+            AutoConfig.steward.metrics.onTypeMismatch(key);
+            ConfigLog.e("batch : type is wrong --> " + key + " : " + value);
+            valid = false;
+        } else {
+            values.put(item, value);
+        }
+
+        return this;
+    }
+}
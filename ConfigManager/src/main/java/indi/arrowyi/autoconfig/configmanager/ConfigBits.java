@@ -0,0 +1,77 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+//the primitive values are kept as the raw bits of a long by the snapshot and the built-in accessors
+final class ConfigBits {
+    private ConfigBits() {
+    }
+
+    //the strings have no bits, and a value which is not of the type is 0
+    static long toBits(AutoConfig.Type type, Object value) {
+        if (!type.isTypeOf(value)) {
+            return 0;
+        }
+
+        switch (type) {
+            case INT:
+                return (Integer) value;
+            case LONG:
+                return (Long) value;
+            case FLOAT:
+                return Float.floatToRawIntBits((Float) value);
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) value);
+            case BOOLEAN:
+                return (Boolean) value ? 1L : 0L;
+            default:
+                return 0;
+        }
+    }
+
+    static Object fromBits(AutoConfig.Type type, long bits, String string) {
+        switch (type) {
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            case BOOLEAN:
+                return bits != 0;
+            default:
+                return string;
+        }
+    }
+
+    static String stringOf(AutoConfig.Type type, Object value) {
+        return type == AutoConfig.Type.STRING ? (String) value : null;
+    }
+
+    //the persisted value of the type
+    static AutoConfig.Type typeOf(int value) {
+        for (AutoConfig.Type type : AutoConfig.Type.values()) {
+            if (type.getValue() == value) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+}
@@ -20,12 +20,18 @@ package indi.arrowyi.autoconfig.configmanager;
 
 class ConfigFlyweight {
 
-    private AutoConfig.Type type;
-    private ConfigAccessor configAccessor;
-    private DefaultValueLoader defaultValueLoader;
+    private final AutoConfig.Type type;
+    private final String accessorName;
+    private final String loaderName;
+    //the accessor and loader could be bound late by the factory while the readers are running without lock
+    private volatile ConfigAccessor configAccessor;
+    private volatile DefaultValueLoader defaultValueLoader;
 
-    ConfigFlyweight(AutoConfig.Type type, ConfigAccessor configAccessor, DefaultValueLoader defaultValueLoader) {
+    ConfigFlyweight(AutoConfig.Type type, String accessorName, String loaderName
+            , ConfigAccessor configAccessor, DefaultValueLoader defaultValueLoader) {
         this.type = type;
+        this.accessorName = accessorName;
+        this.loaderName = loaderName;
         this.configAccessor = configAccessor;
         this.defaultValueLoader = defaultValueLoader;
     }
@@ -34,6 +40,14 @@ class ConfigFlyweight {
         return type;
     }
 
+    String getAccessorName() {
+        return accessorName;
+    }
+
+    String getLoaderName() {
+        return loaderName;
+    }
+
     ConfigAccessor getConfigAccessor() {
         return configAccessor;
     }
@@ -18,8 +18,10 @@ package indi.arrowyi.autoconfig.configmanager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 class ConfigFlyweightFactory {
 
@@ -36,13 +38,15 @@ class ConfigFlyweightFactory {
 
     private Map<AutoConfig.Type, Map<String, Map<String, ConfigFlyweight>>> configInfoes = new HashMap<>();
 
-    void registerAccessor(String name, ConfigAccessor configAccessor) {
+    //return true if some keys have been using the name, so their cached values should be dropped
+    boolean registerAccessor(String name, ConfigAccessor configAccessor) {
         if (configAccessor == null) {
             ConfigLog.e("config accessor is null");
         }
 
         synchronized (syncLock) {
-            if (accessors.containsKey(name)) {
+            boolean replaced = accessors.containsKey(name);
+            if (replaced) {
                 ConfigLog.e(name + " <-- accessor has already been registered!");
             }
 
@@ -54,16 +58,19 @@ class ConfigFlyweightFactory {
                     flyweight.setConfigAccessor(configAccessor);
                 }
             }
+
+            return replaced || flyweights != null;
         }
     }
 
-    void registerDefaultLoader(String name, DefaultValueLoader defaultValueLoader) {
+    boolean registerDefaultLoader(String name, DefaultValueLoader defaultValueLoader) {
         if (defaultValueLoader == null) {
             ConfigLog.e("default value loader is null");
         }
 
         synchronized (syncLock) {
-            if (defaultLoaders.containsKey(name)) {
+            boolean replaced = defaultLoaders.containsKey(name);
+            if (replaced) {
                 ConfigLog.e(name + " <-- default loader has already been registered!");
             }
             defaultLoaders.put(name, defaultValueLoader);
@@ -75,6 +82,21 @@ class ConfigFlyweightFactory {
                     flyweight.setDefaultValueLoader(defaultValueLoader);
                 }
             }
+
+            return replaced || flyweights != null;
+        }
+    }
+
+    //the names used by the keys but not registered yet
+    Set<String> getUnassignedAccessors() {
+        synchronized (syncLock) {
+            return new HashSet<>(noAssignedAccessors.keySet());
+        }
+    }
+
+    Set<String> getUnassignedLoaders() {
+        synchronized (syncLock) {
+            return new HashSet<>(noAssignedLoaders.keySet());
         }
     }
 
@@ -100,7 +122,7 @@ class ConfigFlyweightFactory {
             ConfigFlyweight configFlyweight = loaders.get(defaultLoaderName);
 
             if (configFlyweight == null) {
-                configFlyweight = new ConfigFlyweight(type, provider, loader);
+                configFlyweight = new ConfigFlyweight(type, providerName, defaultLoaderName, provider, loader);
                 loaders.put(defaultLoaderName, configFlyweight);
             }
 
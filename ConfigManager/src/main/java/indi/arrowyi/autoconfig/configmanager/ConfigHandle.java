@@ -0,0 +1,72 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+//the typed handle of a key, it binds the registered item once, then the reading skips the key lookup
+public abstract class ConfigHandle {
+
+    private final String key;
+    private final AutoConfig.Type type;
+    private volatile ConfigItem item = null;
+
+    ConfigHandle(String key, AutoConfig.Type type) {
+        this.key = key;
+        this.type = type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public AutoConfig.Type getType() {
+        return type;
+    }
+
+    public boolean isDefined() {
+        return item() != null;
+    }
+
+    public boolean reset() {
+        return AutoConfig.reset(key);
+    }
+
+    //moves whenever the value of the key could have changed, -1 if the key is not defined
+    public long version() {
+        ConfigItem bound = item();
+        return bound != null ? bound.getVersion() : -1;
+    }
+
+    ConfigItem item() {
+        ConfigItem bound = item;
+        if (bound == null) {
+            bound = AutoConfig.steward.bind(key, type);
+            item = bound;
+        }
+
+        return bound;
+    }
+
+    //the reading and the writing fail with the key instead of a NPE in the steward when the key could not be bound
+    ConfigItem boundItem() {
+        ConfigItem bound = item();
+        if (bound == null) {
+            throw new ConfigRuntimeException("handle is not bound, key is not defined or not a " + type + " --> " + key);
+        }
+
+        return bound;
+    }
+}
@@ -0,0 +1,49 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+//a hot key or call site found by the profiler, the counts are estimated from the sampled reads
+public final class ConfigHotSpot {
+    private final String name;
+    private final long estimatedReads;
+    private final long error;
+
+    ConfigHotSpot(String name, long estimatedReads, long error) {
+        this.name = name;
+        this.estimatedReads = estimatedReads;
+        this.error = error;
+    }
+
+    //the key, or the call site and the key it reads : "com.foo.Bar.run(Bar.java:42) -> key"
+    public String getName() {
+        return name;
+    }
+
+    public long getEstimatedReads() {
+        return estimatedReads;
+    }
+
+    //the estimated reads could be overcounted by at most this much
+    public long getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + estimatedReads + " (+-" + error + ")";
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.Map;
+
+class ConfigItem {
+
+    private final String key;
+    private final ConfigFlyweight flyweight;
+
+    //the accessor and loader resolved for the key, the indexed ones are wrapped with the ordinal of the key,
+    //and the metered ones with the recorder of the key.
+    //It is bound again when the flyweight gets a different accessor or loader, or the metrics is changed
+    static final class Binding {
+        private final ConfigAccessor boundAccessor;
+        private final DefaultValueLoader boundLoader;
+        private final ConfigMetrics metrics;
+        final ConfigAccessor accessor;
+        final DefaultValueLoader loader;
+        //the default value of an indexed loader is a constant, it is fetched and type checked once here,
+        //null means it should be asked from the loader on every reading
+        final Object defaultValue;
+        //null means the key is not metered
+        final ConfigMetrics.KeyRecorder recorder;
+
+        Binding(String key, ConfigFlyweight flyweight, ConfigAccessor accessor, DefaultValueLoader loader
+                , ConfigMetrics metrics) {
+            this.boundAccessor = accessor;
+            this.boundLoader = loader;
+            this.metrics = metrics;
+            ConfigAccessor indexedAccessor = indexed(key, accessor);
+            DefaultValueLoader indexedLoader = indexed(key, loader);
+            this.defaultValue = indexedLoader instanceof IndexedLoader
+                    ? checkedDefault(key, flyweight.getType(), indexedLoader, metrics) : null;
+
+            this.recorder = accessor != null && loader != null
+                    ? metrics.recorderOf(key, flyweight.getAccessorName(), flyweight.getLoaderName()) : null;
+            this.accessor = recorder != null ? new MeteredAccessor(indexedAccessor, recorder) : indexedAccessor;
+            this.loader = recorder != null ? new MeteredLoader(indexedLoader, recorder) : indexedLoader;
+        }
+
+        private static Object checkedDefault(String key, AutoConfig.Type type, DefaultValueLoader loader
+                , ConfigMetrics metrics) {
+            Object value = loader.getDefaultValue(key, type);
+            if (!type.isTypeOf(value)) {
+                metrics.onTypeMismatch(key);
+                ConfigLog.e("default value type is not right --> " + key + " : " + value);
+                return null;
+            }
+
+            return value;
+        }
+
+        private static ConfigAccessor indexed(String key, ConfigAccessor accessor) {
+            if (accessor instanceof IndexedConfigAccessor) {
+                int index = ((IndexedConfigAccessor) accessor).indexOf(key);
+                if (index >= 0) {
+                    return new IndexedAccessor((IndexedConfigAccessor) accessor, index);
+                }
+            }
+
+            return accessor;
+        }
+
+        private static DefaultValueLoader indexed(String key, DefaultValueLoader loader) {
+            if (loader instanceof IndexedDefaultValueLoader) {
+                int index = ((IndexedDefaultValueLoader) loader).indexOf(key);
+                if (index >= 0) {
+                    return new IndexedLoader((IndexedDefaultValueLoader) loader, index);
+                }
+            }
+
+            return loader;
+        }
+    }
+
+    private volatile Binding binding = null;
+    private volatile boolean cacheEnabled = false;
+    //the resolved value of the key, only used when the cache is enabled, null means not resolved yet
+    private volatile Object cachedValue = null;
+    //null means the near cache is disabled for the key
+    private volatile ConfigNearCache nearCache = null;
+    //bumped to the global version of the steward whenever the value could have changed
+    private volatile long version = 0;
+
+    ConfigItem(String key, ConfigFlyweight flyweight) {
+        this.key = key;
+        this.flyweight = flyweight;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    ConfigFlyweight getFlyweight() {
+        return flyweight;
+    }
+
+    AutoConfig.Type getType() {
+        return flyweight.getType();
+    }
+
+    Binding bind() {
+        ConfigAccessor accessor = flyweight.getConfigAccessor();
+        DefaultValueLoader loader = flyweight.getDefaultValueLoader();
+        ConfigMetrics metrics = AutoConfig.steward.metrics;
+        Binding cur = binding;
+        if (cur == null || cur.boundAccessor != accessor || cur.boundLoader != loader || cur.metrics != metrics) {
+            cur = new Binding(key, flyweight, accessor, loader, metrics);
+            binding = cur;
+        }
+
+        return cur;
+    }
+
+    boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+        this.cachedValue = null;
+    }
+
+    Object getCachedValue() {
+        return cachedValue;
+    }
+
+    void setCachedValue(Object cachedValue) {
+        this.cachedValue = cachedValue;
+    }
+
+    void invalidate() {
+        this.cachedValue = null;
+    }
+
+    ConfigNearCache getNearCache() {
+        return nearCache;
+    }
+
+    void setNearCacheEnabled(boolean enabled) {
+        this.nearCache = enabled ? new ConfigNearCache() : null;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    private static final class IndexedAccessor implements ConfigAccessor {
+        private final IndexedConfigAccessor accessor;
+        private final int index;
+
+        IndexedAccessor(IndexedConfigAccessor accessor, int index) {
+            this.accessor = accessor;
+            this.index = index;
+        }
+
+        @Override
+        public boolean set(String key, AutoConfig.Type type, Object value) {
+            return accessor.set(index, type, value);
+        }
+
+        @Override
+        public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+            return accessor.get(index, type, defaultValue);
+        }
+
+        @Override
+        public int getInt(String key, int defaultValue) {
+            return accessor.getInt(index, defaultValue);
+        }
+
+        @Override
+        public long getLong(String key, long defaultValue) {
+            return accessor.getLong(index, defaultValue);
+        }
+
+        @Override
+        public float getFloat(String key, float defaultValue) {
+            return accessor.getFloat(index, defaultValue);
+        }
+
+        @Override
+        public double getDouble(String key, double defaultValue) {
+            return accessor.getDouble(index, defaultValue);
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defaultValue) {
+            return accessor.getBoolean(index, defaultValue);
+        }
+
+        @Override
+        public boolean setInt(String key, int value) {
+            return accessor.setInt(index, value);
+        }
+
+        @Override
+        public boolean setLong(String key, long value) {
+            return accessor.setLong(index, value);
+        }
+
+        @Override
+        public boolean setFloat(String key, float value) {
+            return accessor.setFloat(index, value);
+        }
+
+        @Override
+        public boolean setDouble(String key, double value) {
+            return accessor.setDouble(index, value);
+        }
+
+        @Override
+        public boolean setBoolean(String key, boolean value) {
+            return accessor.setBoolean(index, value);
+        }
+
+        @Override
+        public boolean setAll(Map<String, Object> values, Map<String, AutoConfig.Type> types) {
+            return accessor.setAll(values, types);
+        }
+    }
+
+    private static final class IndexedLoader implements DefaultValueLoader {
+        private final IndexedDefaultValueLoader loader;
+        private final int index;
+
+        IndexedLoader(IndexedDefaultValueLoader loader, int index) {
+            this.loader = loader;
+            this.index = index;
+        }
+
+        @Override
+        public Object getDefaultValue(String key, AutoConfig.Type type) {
+            return loader.getDefaultValue(index);
+        }
+
+        @Override
+        public int getDefaultInt(String key) {
+            return loader.getDefaultInt(index);
+        }
+
+        @Override
+        public long getDefaultLong(String key) {
+            return loader.getDefaultLong(index);
+        }
+
+        @Override
+        public float getDefaultFloat(String key) {
+            return loader.getDefaultFloat(index);
+        }
+
+        @Override
+        public double getDefaultDouble(String key) {
+            return loader.getDefaultDouble(index);
+        }
+
+        @Override
+        public boolean getDefaultBoolean(String key) {
+            return loader.getDefaultBoolean(index);
+        }
+    }
+
+    //only the sampled calls are timed, the others are just counted
+    private static final class MeteredAccessor implements ConfigAccessor {
+        private final ConfigAccessor accessor;
+        private final ConfigMetrics.KeyRecorder recorder;
+
+        MeteredAccessor(ConfigAccessor accessor, ConfigMetrics.KeyRecorder recorder) {
+            this.accessor = accessor;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public boolean set(String key, AutoConfig.Type type, Object value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.set(key, type, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.set(key, type, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        @Override
+        public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.get(key, type, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            Object value = accessor.get(key, type, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public int getInt(String key, int defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.getInt(key, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            int value = accessor.getInt(key, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public long getLong(String key, long defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.getLong(key, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            long value = accessor.getLong(key, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public float getFloat(String key, float defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.getFloat(key, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            float value = accessor.getFloat(key, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public double getDouble(String key, double defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.getDouble(key, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            double value = accessor.getDouble(key, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defaultValue) {
+            if (!recorder.sample()) {
+                recorder.onRead(-1);
+                return accessor.getBoolean(key, defaultValue);
+            }
+
+            long start = System.nanoTime();
+            boolean value = accessor.getBoolean(key, defaultValue);
+            recorder.onRead(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public boolean setInt(String key, int value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.setInt(key, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.setInt(key, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        @Override
+        public boolean setLong(String key, long value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.setLong(key, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.setLong(key, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        @Override
+        public boolean setFloat(String key, float value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.setFloat(key, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.setFloat(key, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        @Override
+        public boolean setDouble(String key, double value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.setDouble(key, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.setDouble(key, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        @Override
+        public boolean setBoolean(String key, boolean value) {
+            if (!recorder.sample()) {
+                recorder.onWrite(-1);
+                return accessor.setBoolean(key, value);
+            }
+
+            long start = System.nanoTime();
+            boolean res = accessor.setBoolean(key, value);
+            recorder.onWrite(System.nanoTime() - start);
+            return res;
+        }
+
+        //the batch writes of many keys are counted by the steward
+        @Override
+        public boolean setAll(Map<String, Object> values, Map<String, AutoConfig.Type> types) {
+            return accessor.setAll(values, types);
+        }
+    }
+
+    private static final class MeteredLoader implements DefaultValueLoader {
+        private final DefaultValueLoader loader;
+        private final ConfigMetrics.KeyRecorder recorder;
+
+        MeteredLoader(DefaultValueLoader loader, ConfigMetrics.KeyRecorder recorder) {
+            this.loader = loader;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Object getDefaultValue(String key, AutoConfig.Type type) {
+            if (!recorder.sample()) {
+                return loader.getDefaultValue(key, type);
+            }
+
+            long start = System.nanoTime();
+            Object value = loader.getDefaultValue(key, type);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public int getDefaultInt(String key) {
+            if (!recorder.sample()) {
+                return loader.getDefaultInt(key);
+            }
+
+            long start = System.nanoTime();
+            int value = loader.getDefaultInt(key);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public long getDefaultLong(String key) {
+            if (!recorder.sample()) {
+                return loader.getDefaultLong(key);
+            }
+
+            long start = System.nanoTime();
+            long value = loader.getDefaultLong(key);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public float getDefaultFloat(String key) {
+            if (!recorder.sample()) {
+                return loader.getDefaultFloat(key);
+            }
+
+            long start = System.nanoTime();
+            float value = loader.getDefaultFloat(key);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public double getDefaultDouble(String key) {
+            if (!recorder.sample()) {
+                return loader.getDefaultDouble(key);
+            }
+
+            long start = System.nanoTime();
+            double value = loader.getDefaultDouble(key);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+
+        @Override
+        public boolean getDefaultBoolean(String key) {
+            if (!recorder.sample()) {
+                return loader.getDefaultBoolean(key);
+            }
+
+            long start = System.nanoTime();
+            boolean value = loader.getDefaultBoolean(key);
+            recorder.onLoad(System.nanoTime() - start);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//the listeners of every key are kept in an immutable array, which is replaced as a whole when adding or removing,
+//so the dispatching just iterates the snapshot it got without any lock
+class ConfigListenerRegistry {
+
+    private final Map<String, AutoConfig.ConfigChangedListener[]> listeners = new ConcurrentHashMap<>();
+
+    void add(String key, AutoConfig.ConfigChangedListener listener) {
+        listeners.compute(key, (k, current) -> {
+            if (current == null) {
+                return new AutoConfig.ConfigChangedListener[]{listener};
+            }
+
+            AutoConfig.ConfigChangedListener[] added = Arrays.copyOf(current, current.length + 1);
+            added[current.length] = listener;
+            return added;
+        });
+    }
+
+    boolean remove(String key, AutoConfig.ConfigChangedListener listener) {
+        boolean[] removed = {false};
+        listeners.computeIfPresent(key, (k, current) -> {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(listener)) {
+                    removed[0] = true;
+                    if (current.length == 1) {
+                        return null;
+                    }
+
+                    AutoConfig.ConfigChangedListener[] left = new AutoConfig.ConfigChangedListener[current.length - 1];
+                    System.arraycopy(current, 0, left, 0, i);
+                    System.arraycopy(current, i + 1, left, i, current.length - i - 1);
+                    return left;
+                }
+            }
+
+            return current;
+        });
+
+        return removed[0];
+    }
+
+    boolean hasListeners(String key) {
+        return listeners.containsKey(key);
+    }
+
+    //the returned array must not be modified
+    AutoConfig.ConfigChangedListener[] get(String key) {
+        return listeners.get(key);
+    }
+}
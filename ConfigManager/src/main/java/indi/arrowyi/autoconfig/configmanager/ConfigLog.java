@@ -16,6 +16,7 @@
 
 package indi.arrowyi.autoconfig.configmanager;
 
+import java.util.function.Supplier;
 
 class ConfigLog {
 
@@ -43,9 +44,27 @@ class ConfigLog {
         }
     }
 
-    static void d(String msg) {
+    static void w(String msg, Throwable e) {
         if (autoConfigLog != null) {
-            autoConfigLog.warning(TAG + msg);
+            autoConfigLog.warning(TAG + msg + " with " + e.toString());
+        }
+    }
+
+    //check it before building an expensive message on the hot path, a capturing supplier is not free either
+    static boolean isDebugEnabled() {
+        AutoConfigLog log = autoConfigLog;
+        return log != null && log.isDebugEnabled();
+    }
+
+    static void d(String msg) {
+        if (isDebugEnabled()) {
+            autoConfigLog.debug(TAG + msg);
+        }
+    }
+
+    static void d(Supplier<String> msg) {
+        if (isDebugEnabled()) {
+            autoConfigLog.debug(TAG + msg.get());
         }
     }
 }
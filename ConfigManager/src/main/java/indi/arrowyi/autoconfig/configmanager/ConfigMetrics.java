@@ -0,0 +1,54 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+//the metrics SPI, set it by AutoConfig.setMetrics, see JmxConfigMetrics.
+//All the methods are called on the reading and writing threads, so they should be cheap and never block
+public interface ConfigMetrics {
+
+    ConfigMetrics NOOP = new ConfigMetrics() {
+    };
+
+    //resolved once when the key is bound to its accessor and loader, so the reading does not look up anything,
+    //null means the key is not metered
+    default KeyRecorder recorderOf(String key, String accessor, String loader) {
+        return null;
+    }
+
+    default void onTypeMismatch(String key) {
+    }
+
+    default void onUnknownKey(String key) {
+    }
+
+    //the time of delivering one change to all its listeners
+    default void onListenerDispatched(long nanos) {
+    }
+
+    interface KeyRecorder {
+        //true if the coming call should be timed, the timing is the costly part so it is sampled
+        boolean sample();
+
+        //the nanos is negative when the call is not sampled
+        void onRead(long nanos);
+
+        void onWrite(long nanos);
+
+        //only called for the sampled calls
+        void onLoad(long nanos);
+    }
+}
@@ -0,0 +1,60 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+//the resolved value of a key kept in the striped slots, a thread reads and fills the slot of its stripe only,
+//so the readers of the different stripes never write the same slot. An entry is valid only when it is stamped
+//with the current version of the key, so a change is visible to all the threads once the version is bumped
+final class ConfigNearCache {
+
+    //immutable, so it is safely published through the plain array by its final fields
+    static final class Entry {
+        final long version;
+        //null when it is filled by a primitive reading, the bits are always there
+        final Object value;
+        final long bits;
+
+        Entry(long version, Object value, long bits) {
+            this.version = version;
+            this.value = value;
+            this.bits = bits;
+        }
+    }
+
+    private static final int STRIPES = stripes();
+
+    private final Entry[] slots = new Entry[STRIPES];
+
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    }
+
+    private static int stripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    //null if the slot of the thread is empty or stale
+    Entry get(long version) {
+        Entry entry = slots[stripe()];
+        return entry != null && entry.version == version ? entry : null;
+    }
+
+    void put(long version, Object value, long bits) {
+        slots[stripe()] = new Entry(version, value, bits);
+    }
+}
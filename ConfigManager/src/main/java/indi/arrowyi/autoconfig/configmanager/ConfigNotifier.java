@@ -0,0 +1,330 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+//the changes are dispatched by the lanes, a key always goes to the same lane, so the listeners of a key
+//see the changes in order. Every lane has its own bounded queue and a worker thread started on demand.
+//The grouped changes of a batch have no key, they always go to the first lane and are never coalesced.
+class ConfigNotifier {
+
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private static class Notification {
+        final String key;
+        Object value;
+        final long enqueueNanos;
+        final long dueNanos;
+
+        Notification(String key, Object value, long enqueueNanos, long dueNanos) {
+            this.key = key;
+            this.value = value;
+            this.enqueueNanos = enqueueNanos;
+            this.dueNanos = dueNanos;
+        }
+    }
+
+    private final BiConsumer<String, Object> dispatcher;
+    private final Consumer<Map<String, Object>> batchDispatcher;
+    private final Lane[] lanes;
+
+    private volatile int capacity;
+    private volatile AutoConfig.OverflowPolicy policy;
+    //in the coalescing mode, a change replaces the queued one of the same key, and the queued change waits
+    //for the debounce window before being dispatched, so that the listeners only see the latest value
+    private volatile boolean coalescing = false;
+    private volatile long debounceNanos = 0;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    ConfigNotifier(BiConsumer<String, Object> dispatcher, Consumer<Map<String, Object>> batchDispatcher
+            , int laneCount, int capacity, AutoConfig.OverflowPolicy policy) {
+        this.dispatcher = dispatcher;
+        this.batchDispatcher = batchDispatcher;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+        }
+
+        setCapacity(capacity);
+        setPolicy(policy);
+    }
+
+    void setCapacity(int capacity) {
+        if (capacity < 1) {
+            ConfigLog.e("notify queue capacity should be positive --> " + capacity);
+            return;
+        }
+
+        this.capacity = capacity;
+    }
+
+    void setPolicy(AutoConfig.OverflowPolicy policy) {
+        if (policy == null) {
+            ConfigLog.e("notify overflow policy is null");
+            return;
+        }
+
+        this.policy = policy;
+    }
+
+    void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    void setDebounceWindow(long debounce, TimeUnit unit) {
+        if (debounce < 0) {
+            ConfigLog.e("notify debounce window should not be negative --> " + debounce);
+            return;
+        }
+
+        this.debounceNanos = unit.toNanos(debounce);
+    }
+
+    void notify(String key, Object value) {
+        lanes[(key.hashCode() & Integer.MAX_VALUE) % lanes.length].offer(key, value);
+    }
+
+    void notifyBatch(Map<String, Object> changes) {
+        lanes[0].offer(null, changes);
+    }
+
+    ConfigNotifyStats getStats() {
+        long count = dispatched.sum();
+        return new ConfigNotifyStats(queueDepth.get(), count, dropped.sum(), coalesced.sum()
+                , count == 0 ? 0 : totalLatencyNanos.sum() / count, maxLatencyNanos.get());
+    }
+
+    private int laneCapacity() {
+        return Math.max(1, capacity / lanes.length);
+    }
+
+    private void onDispatched(Notification notification) {
+        long latency = System.nanoTime() - notification.enqueueNanos;
+        dispatched.increment();
+        totalLatencyNanos.add(latency);
+
+        long max = maxLatencyNanos.get();
+        while (latency > max && !maxLatencyNanos.compareAndSet(max, latency)) {
+            max = maxLatencyNanos.get();
+        }
+    }
+
+    //the thread dispatching the changes of a lane
+    private static final class Worker extends Thread {
+        Worker(Runnable lane, String name) {
+            super(lane, name);
+        }
+    }
+
+    private class Lane implements Runnable {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final ArrayDeque<Notification> queue = new ArrayDeque<>();
+        //the last queued notification of every key, used to coalesce the changes of the same key
+        private final Map<String, Notification> lastOfKey = new HashMap<>();
+        private Thread worker = null;
+
+        Lane(int index) {
+            this.index = index;
+        }
+
+        void offer(String key, Object value) {
+            lock.lock();
+            try {
+                if (coalescing && coalesce(key, value)) {
+                    return;
+                }
+
+                while (queue.size() >= laneCapacity()) {
+                    AutoConfig.OverflowPolicy curPolicy = policy;
+                    if (curPolicy == AutoConfig.OverflowPolicy.COALESCE && coalesce(key, value)) {
+                        return;
+                    }
+
+                    if (curPolicy == AutoConfig.OverflowPolicy.DROP_OLDEST) {
+                        remove(queue.poll());
+                        dropped.increment();
+                        continue;
+                    }
+
+                    //a listener changes the config in its callback, waiting for its own lane would never end,
+                    //and waiting for another lane could wait for a listener of that lane waiting for this one,
+                    //so a worker of any lane enqueues over the capacity
+                    if (Thread.currentThread() instanceof Worker) {
+                        break;
+                    }
+
+                    notFull.await();
+                }
+
+                long now = System.nanoTime();
+                Notification notification = new Notification(key, value, now, coalescing ? now + debounceNanos : now);
+                queue.add(notification);
+                if (key != null) {
+                    lastOfKey.put(key, notification);
+                }
+                queueDepth.incrementAndGet();
+
+                if (worker == null) {
+                    startWorker();
+                } else {
+                    notEmpty.signal();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                ConfigLog.d("notify is interrupted, the change is dropped --> " + (key == null ? "batch" : key));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Notification notification = take();
+                if (notification == null) {
+                    return;
+                }
+
+                try {
+                    dispatch(notification);
+                } catch (RuntimeException e) {
+                    ConfigLog.w("listener failed --> " + (notification.key == null ? "batch" : notification.key), e);
+                } catch (Error e) {
+                    //this thread dies with the error, another one takes over the queued changes
+                    ConfigLog.w("listener failed, the notifier is restarted --> "
+                            + (notification.key == null ? "batch" : notification.key), e);
+                    onDispatched(notification);
+                    replaceWorker();
+                    throw e;
+                }
+
+                onDispatched(notification);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(Notification notification) {
+            if (notification.key == null) {
+                batchDispatcher.accept((Map<String, Object>) notification.value);
+            } else {
+                dispatcher.accept(notification.key, notification.value);
+            }
+        }
+
+        //called with the lock
+        private void startWorker() {
+            worker = new Worker(this, "AutoConfig-notifier-" + index);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        //the lane must not be left with a dead worker, the offers would only signal it and never be drained
+        private void replaceWorker() {
+            lock.lock();
+            try {
+                worker = null;
+                if (!queue.isEmpty()) {
+                    startWorker();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        //return null when the lane has been idle for the keep alive time, the worker quits then
+        private Notification take() {
+            lock.lock();
+            try {
+                long nanos = KEEP_ALIVE_NANOS;
+                while (true) {
+                    if (queue.isEmpty()) {
+                        if (nanos <= 0) {
+                            worker = null;
+                            return null;
+                        }
+
+                        nanos = notEmpty.awaitNanos(nanos);
+                        continue;
+                    }
+
+                    long wait = queue.peek().dueNanos - System.nanoTime();
+                    if (wait <= 0) {
+                        break;
+                    }
+
+                    notEmpty.awaitNanos(wait);
+                }
+
+                Notification notification = queue.poll();
+                remove(notification);
+                notFull.signal();
+                return notification;
+            } catch (InterruptedException e) {
+                worker = null;
+                if (!queue.isEmpty()) {
+                    startWorker();
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean coalesce(String key, Object value) {
+            if (key == null) {
+                return false;
+            }
+
+            Notification last = lastOfKey.get(key);
+            if (last == null) {
+                return false;
+            }
+
+            last.value = value;
+            coalesced.increment();
+            return true;
+        }
+
+        private void remove(Notification notification) {
+            if (lastOfKey.get(notification.key) == notification) {
+                lastOfKey.remove(notification.key);
+            }
+            queueDepth.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+public final class ConfigNotifyStats {
+    private final int queueDepth;
+    private final long dispatchedCount;
+    private final long droppedCount;
+    private final long coalescedCount;
+    private final long averageLatencyNanos;
+    private final long maxLatencyNanos;
+
+    ConfigNotifyStats(int queueDepth, long dispatchedCount, long droppedCount, long coalescedCount
+            , long averageLatencyNanos, long maxLatencyNanos) {
+        this.queueDepth = queueDepth;
+        this.dispatchedCount = dispatchedCount;
+        this.droppedCount = droppedCount;
+        this.coalescedCount = coalescedCount;
+        this.averageLatencyNanos = averageLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    //from the change is queued to all the listeners of it have been called
+    public long getAverageLatencyNanos() {
+        return averageLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigNotifyStats{queueDepth=" + queueDepth + ", dispatched=" + dispatchedCount
+                + ", dropped=" + droppedCount + ", coalesced=" + coalescedCount
+                + ", averageLatencyNanos=" + averageLatencyNanos + ", maxLatencyNanos=" + maxLatencyNanos + "}";
+    }
+}
@@ -0,0 +1,127 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+//samples one of every sampleRate reads and keeps the hottest keys (and call sites) with the space saving top-K,
+//the memory is bounded by the capacity however many keys are read
+final class ConfigProfiler {
+    static final int DEFAULT_CAPACITY = 64;
+    static final int DEFAULT_SAMPLE_RATE = 256;
+
+    private static final String PACKAGE = AutoConfig.class.getPackage().getName() + ".";
+
+    private final int sampleRate;
+    private final boolean callSites;
+    private final TopK keys;
+    private final TopK sites;
+
+    ConfigProfiler(int capacity, int sampleRate, boolean callSites) {
+        if (capacity < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("capacity and sampleRate should be positive --> "
+                    + capacity + " : " + sampleRate);
+        }
+
+        this.sampleRate = sampleRate;
+        this.callSites = callSites;
+        this.keys = new TopK(capacity);
+        this.sites = callSites ? new TopK(capacity) : null;
+    }
+
+    void onRead(String key) {
+        if (key == null || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+
+        keys.offer(key);
+        if (callSites) {
+            sites.offer(callSite() + " -> " + key);
+        }
+    }
+
+    List<ConfigHotSpot> getHotKeys(int count) {
+        return keys.top(count, sampleRate);
+    }
+
+    List<ConfigHotSpot> getHotCallSites(int count) {
+        return callSites ? sites.top(count, sampleRate) : new ArrayList<>();
+    }
+
+    //the first frame out of AutoConfig, the stack is only walked for the sampled reads
+    private static String callSite() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!element.getClassName().startsWith(PACKAGE)) {
+                return element.toString();
+            }
+        }
+
+        return "unknown";
+    }
+
+    //the space saving algorithm : a new item takes the place of the least counted one and inherits its count
+    //as the error, so a hot item is never missed and its count is overestimated by at most the error
+    private static final class TopK {
+        private final int capacity;
+        private final Map<String, long[]> counters = new HashMap<>();
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(String item) {
+            long[] counter = counters.get(item);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+
+            if (counters.size() < capacity) {
+                counters.put(item, new long[]{1, 0});
+                return;
+            }
+
+            String minItem = null;
+            long[] min = null;
+            for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                if (min == null || entry.getValue()[0] < min[0]) {
+                    minItem = entry.getKey();
+                    min = entry.getValue();
+                }
+            }
+
+            counters.remove(minItem);
+            counters.put(item, new long[]{min[0] + 1, min[0]});
+        }
+
+        synchronized List<ConfigHotSpot> top(int count, int scale) {
+            List<Map.Entry<String, long[]>> entries = new ArrayList<>(counters.entrySet());
+            entries.sort((l, r) -> Long.compare(r.getValue()[0], l.getValue()[0]));
+            List<ConfigHotSpot> res = new ArrayList<>(Math.min(count, entries.size()));
+            for (int i = 0; i < entries.size() && i < count; i++) {
+                Map.Entry<String, long[]> entry = entries.get(i);
+                res.add(new ConfigHotSpot(entry.getKey(), entry.getValue()[0] * scale, entry.getValue()[1] * scale));
+            }
+
+            return res;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//the binary registry written by the processor next to a generated register, see AutoConfigProcessor.generateRegistry.
+//The keys are registered from it in one pass with one version bump, and the default values of the module are
+//served from it, so neither the register calls nor the static initializer of the generated loader run.
+final class ConfigRegistry {
+
+    static final String SUFFIX = ".registry";
+    private static final int MAGIC = 0x41435247;
+    private static final int VERSION = 1;
+
+    private ConfigRegistry() {
+    }
+
+    //return false if the register has no registry, the register should register its keys by itself then
+    static boolean load(Class<?> registerClass, ConfigSteward steward) {
+        ClassLoader classLoader = registerClass.getClassLoader();
+        URL url = classLoader == null ? null
+                : classLoader.getResource(LazyConfigRegisters.MANIFEST_DIR + registerClass.getName() + SUFFIX);
+        if (url == null) {
+            return false;
+        }
+
+        ByteBuffer buffer;
+        try {
+            buffer = read(url);
+        } catch (IOException | URISyntaxException e) {
+            ConfigLog.w("read the registry failed, falls back to the register --> " + url, e);
+            return false;
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+            ConfigLog.d("the registry is not supported, falls back to the register --> " + url);
+            return false;
+        }
+
+        String[] names = new String[buffer.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = readString(buffer);
+        }
+
+        int defaultLoaderIndex = buffer.getInt();
+        int count = buffer.getInt();
+
+        List<String> keys = new ArrayList<>(count);
+        List<ConfigFlyweight> flyweights = new ArrayList<>(count);
+        Map<Long, ConfigFlyweight> resolved = new HashMap<>();
+        RegistryLoader loader = new RegistryLoader(count);
+        AutoConfig.Type[] types = AutoConfig.Type.values();
+
+        for (int i = 0; i < count; i++) {
+            String key = readString(buffer);
+            AutoConfig.Type type = types[buffer.get()];
+            int accessor = buffer.getInt();
+            int defaultLoader = buffer.getInt();
+            if (defaultLoader == defaultLoaderIndex) {
+                loader.add(key, readDefault(buffer, type));
+            }
+
+            //the flyweight is shared by all the keys with the same type, accessor and loader
+            long id = ((long) type.ordinal() << 48) | ((long) accessor << 24) | defaultLoader;
+            ConfigFlyweight flyweight = resolved.get(id);
+            if (flyweight == null) {
+                flyweight = steward.configFlyweightFactory.getInfo(type, names[accessor], names[defaultLoader]);
+                resolved.put(id, flyweight);
+            }
+
+            keys.add(key);
+            flyweights.add(flyweight);
+        }
+
+        //the loader is registered before the keys, so the keys are bound with their defaults at once
+        if (defaultLoaderIndex >= 0) {
+            AutoConfig.registerDefaultValueLoader(names[defaultLoaderIndex], loader);
+        }
+
+        steward.registerAll(keys, flyweights);
+        return true;
+    }
+
+    //the file of an exploded class path is mapped, the entry of a jar has to be read
+    private static ByteBuffer read(URL url) throws IOException, URISyntaxException {
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        try (InputStream in = url.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = in.read(bytes)) > 0) {
+                out.write(bytes, 0, read);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static Object readDefault(ByteBuffer buffer, AutoConfig.Type type) {
+        switch (type) {
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case FLOAT:
+                return buffer.getFloat();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            default:
+                return readString(buffer);
+        }
+    }
+
+    //the default values of the module read from the registry, in place of the generated default loader
+    private static final class RegistryLoader implements IndexedDefaultValueLoader {
+        private final Map<String, Integer> indexes;
+        private final List<Object> defaults;
+
+        RegistryLoader(int capacity) {
+            indexes = new HashMap<>(capacity * 4 / 3 + 1);
+            defaults = new ArrayList<>(capacity);
+        }
+
+        void add(String key, Object value) {
+            indexes.put(key, defaults.size());
+            defaults.add(value);
+        }
+
+        @Override
+        public int indexOf(String key) {
+            Integer index = indexes.get(key);
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public Object getDefaultValue(int index) {
+            return defaults.get(index);
+        }
+
+        @Override
+        public Object getDefaultValue(String key, AutoConfig.Type type) {
+            int index = indexOf(key);
+            return index < 0 ? null : defaults.get(index);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//an immutable view of the keys read at the same version, it could be shared by the threads freely.
+//The primitive values are kept as raw bits, so the typed getters do not unbox.
+public final class ConfigSnapshot {
+
+    private final long version;
+    private final Map<String, Integer> indexes;
+    private final AutoConfig.Type[] types;
+    private final Object[] values;
+    private final long[] bits;
+
+    ConfigSnapshot(long version, List<ConfigItem> items, List<Object> values) {
+        this.version = version;
+        this.indexes = new HashMap<>(items.size() * 4 / 3 + 1);
+        this.types = new AutoConfig.Type[items.size()];
+        this.values = values.toArray();
+        this.bits = new long[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            indexes.put(items.get(i).getKey(), i);
+            types[i] = items.get(i).getType();
+            bits[i] = ConfigBits.toBits(types[i], this.values[i]);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(indexes.keySet());
+    }
+
+    public boolean contains(String key) {
+        return indexes.containsKey(key);
+    }
+
+    public Object get(String key) {
+        Integer index = indexes.get(key);
+        if (index == null) {
+            ConfigLog.e("the key is not in the snapshot --> " + key);
+            return null;
+        }
+
+        return values[index];
+    }
+
+    public int getInt(String key) {
+        int index = indexOf(key, AutoConfig.Type.INT);
+        return index < 0 ? 0 : (int) bits[index];
+    }
+
+    public long getLong(String key) {
+        int index = indexOf(key, AutoConfig.Type.LONG);
+        return index < 0 ? 0L : bits[index];
+    }
+
+    public float getFloat(String key) {
+        Integer index = indexes.get(key);
+        if (index != null && types[index] == AutoConfig.Type.DOUBLE) {
+            return (float) Double.longBitsToDouble(bits[index]);
+        }
+
+        index = indexOf(key, AutoConfig.Type.FLOAT);
+        return index < 0 ? 0f : Float.intBitsToFloat((int) bits[index]);
+    }
+
+    public double getDouble(String key) {
+        int index = indexOf(key, AutoConfig.Type.DOUBLE);
+        return index < 0 ? 0d : Double.longBitsToDouble(bits[index]);
+    }
+
+    public boolean getBoolean(String key) {
+        int index = indexOf(key, AutoConfig.Type.BOOLEAN);
+        return index >= 0 && bits[index] != 0;
+    }
+
+    public String getString(String key) {
+        int index = indexOf(key, AutoConfig.Type.STRING);
+        return index < 0 ? null : (String) values[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ConfigSnapshot{version=").append(version);
+        for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+            builder.append(", ").append(entry.getKey()).append('=').append(values[entry.getValue()]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private int indexOf(String key, AutoConfig.Type type) {
+        Integer index = indexes.get(key);
+        if (index == null) {
+            ConfigLog.e("the key is not in the snapshot --> " + key);
+            return -1;
+        }
+
+        if (types[index] != type) {
+            ConfigLog.e(key + " is " + types[index] + " but not " + type);
+            return -1;
+        }
+
+        return index;
+    }
+}
@@ -1,4 +1,3 @@
-
 /*
  * Copyright (c) 2022.  Arrowyi. All rights reserved
  * email : arrowyi@gmail.com
@@ -17,37 +16,46 @@
 
 package indi.arrowyi.autoconfig.configmanager;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 class ConfigSteward {
     private static class ConfigCheckUtil {
         private ConfigCheckUtil() {
         }
 
-        static Object getValue(String key, ConfigFlyweight flyweight) {
-            ConfigAccessor accessor = flyweight.getConfigAccessor();
-            DefaultValueLoader loader = flyweight.getDefaultValueLoader();
-            ConfigLog.d(key + "'s accessor is " + accessor == null ? "null !!!" : "not null " + " and loader is "
-                    + loader == null ? "null !!!" : "not null");
+        static Object getValue(ConfigItem item) {
+            String key = item.getKey();
+            ConfigItem.Binding binding = item.bind();
+            ConfigAccessor accessor = binding.accessor;
+            DefaultValueLoader loader = binding.loader;
+            if (ConfigLog.isDebugEnabled()) {
+                ConfigLog.d(key + "'s accessor is " + (accessor == null ? "null !!!" : "not null") + " and loader is "
+                        + (loader == null ? "null !!!" : "not null"));
+            }
 
             if (accessor == null || loader == null) {
                 ConfigLog.e("default value or accessor are null --> " + key);
                 return null;
             }
 
-            Object dv = loader.getDefaultValue(key, flyweight.getType());
+            Object dv = binding.defaultValue;
             if (dv == null) {
-                ConfigLog.e("default value is null --> " + key);
-                return null;
+                dv = loader.getDefaultValue(key, item.getType());
+                if (dv == null) {
+                    ConfigLog.e("default value is null --> " + key);
+                    return null;
+                }
+
+                if (!item.getType().isTypeOf(dv)) {
+                    typeMismatch(key);
+                    ConfigLog.e("default value type is not right --> " + key);
+                    return null;
+                }
             }
 
-            if (!flyweight.getType().isTypeOf(dv)) {
-                ConfigLog.e("default value type is not right --> " + key);
-                return null;
-            }
-
-            return accessor.get(key, flyweight.getType(), dv);
+            return accessor.get(key, item.getType(), dv);
         }
 
 
@@ -56,18 +64,20 @@ class ConfigSteward {
          * 0. failed
          * 2. the same with current value
          */
-        static int setValue(String key, Object value, ConfigFlyweight flyweight) {
-            if (!flyweight.getType().isTypeOf(value)) {
+        static int setValue(ConfigItem item, Object value) {
+            String key = item.getKey();
+            if (!item.getType().isTypeOf(value)) {
+                typeMismatch(key);
                 ConfigLog.e("setValue : type is wrong --> " + key + " : " + value);
                 return 0;
             }
 
-            ConfigAccessor accessor = flyweight.getConfigAccessor();
+            ConfigAccessor accessor = item.bind().accessor;
 
             if (accessor == null) {
                 ConfigLog.e("setValue : accessor is null  --> " + key + " : " + value);
                 return 0;
-            } else if (accessor.set(key, flyweight.getType(), value)) {
+            } else if (accessor.set(key, item.getType(), value)) {
                 return 1;
             } else {
                 ConfigLog.e("setValue : failed!! --> " + key + " : " + value);
@@ -75,23 +85,137 @@ class ConfigSteward {
             }
         }
 
-        static boolean reset(String key, ConfigFlyweight flyweight) {
-            DefaultValueLoader loader = flyweight.getDefaultValueLoader();
+        //the primitive reading skips the boxing when both the accessor and the loader are bound,
+        //otherwise it goes to the boxed path which reports the error
+        static int getInt(ConfigItem item) {
+            ConfigItem.Binding binding = item.bind();
+            if (binding.accessor == null || binding.loader == null) {
+                return (Integer) getValue(item);
+            }
+
+            return binding.accessor.getInt(item.getKey(), binding.loader.getDefaultInt(item.getKey()));
+        }
+
+        static long getLong(ConfigItem item) {
+            ConfigItem.Binding binding = item.bind();
+            if (binding.accessor == null || binding.loader == null) {
+                return (Long) getValue(item);
+            }
+
+            return binding.accessor.getLong(item.getKey(), binding.loader.getDefaultLong(item.getKey()));
+        }
+
+        static float getFloat(ConfigItem item) {
+            ConfigItem.Binding binding = item.bind();
+            if (binding.accessor == null || binding.loader == null) {
+                return (Float) getValue(item);
+            }
+
+            return binding.accessor.getFloat(item.getKey(), binding.loader.getDefaultFloat(item.getKey()));
+        }
+
+        static double getDouble(ConfigItem item) {
+            ConfigItem.Binding binding = item.bind();
+            if (binding.accessor == null || binding.loader == null) {
+                return (Double) getValue(item);
+            }
+
+            return binding.accessor.getDouble(item.getKey(), binding.loader.getDefaultDouble(item.getKey()));
+        }
+
+        static boolean getBoolean(ConfigItem item) {
+            ConfigItem.Binding binding = item.bind();
+            if (binding.accessor == null || binding.loader == null) {
+                return (Boolean) getValue(item);
+            }
+
+            return binding.accessor.getBoolean(item.getKey(), binding.loader.getDefaultBoolean(item.getKey()));
+        }
+
+        static int setInt(ConfigItem item, int value) {
+            ConfigAccessor accessor = getWritableAccessor(item, AutoConfig.Type.INT);
+            return accessor != null ? checkSetResult(item.getKey(), accessor.setInt(item.getKey(), value)) : 0;
+        }
+
+        static int setLong(ConfigItem item, long value) {
+            ConfigAccessor accessor = getWritableAccessor(item, AutoConfig.Type.LONG);
+            return accessor != null ? checkSetResult(item.getKey(), accessor.setLong(item.getKey(), value)) : 0;
+        }
+
+        static int setFloat(ConfigItem item, float value) {
+            ConfigAccessor accessor = getWritableAccessor(item, AutoConfig.Type.FLOAT);
+            return accessor != null ? checkSetResult(item.getKey(), accessor.setFloat(item.getKey(), value)) : 0;
+        }
+
+        static int setDouble(ConfigItem item, double value) {
+            ConfigAccessor accessor = getWritableAccessor(item, AutoConfig.Type.DOUBLE);
+            return accessor != null ? checkSetResult(item.getKey(), accessor.setDouble(item.getKey(), value)) : 0;
+        }
+
+        static int setBoolean(ConfigItem item, boolean value) {
+            ConfigAccessor accessor = getWritableAccessor(item, AutoConfig.Type.BOOLEAN);
+            return accessor != null ? checkSetResult(item.getKey(), accessor.setBoolean(item.getKey(), value)) : 0;
+        }
+
+        private static ConfigAccessor getWritableAccessor(ConfigItem item, AutoConfig.Type type) {
+            if (item.getType() != type) {
+                typeMismatch(item.getKey());
+                ConfigLog.e("setValue : type is wrong --> " + item.getKey() + " : " + type);
+                return null;
+            }
+
+            ConfigAccessor accessor = item.bind().accessor;
+            if (accessor == null) {
+                ConfigLog.e("setValue : accessor is null  --> " + item.getKey());
+            }
+
+            return accessor;
+        }
+
+        private static void typeMismatch(String key) {
+            AutoConfig.steward.metrics.onTypeMismatch(key);
+        }
+
+        private static int checkSetResult(String key, boolean res) {
+            if (!res) {
+                ConfigLog.e("setValue : failed!! --> " + key);
+                return 0;
+            }
+
+            return 1;
+        }
+
+        static boolean reset(ConfigItem item) {
+            DefaultValueLoader loader = item.bind().loader;
             if (loader == null) {
-                ConfigLog.e("reset : default loader is null --> " + key);
+                ConfigLog.e("reset : default loader is null --> " + item.getKey());
                 return false;
             }
 
-            int res = setValue(key, loader.getDefaultValue(key, flyweight.getType()), flyweight);
+            int res = setValue(item, loader.getDefaultValue(item.getKey(), item.getType()));
             return (res == 1 || res == 2);
         }
     }
 
-    private Map<String, ConfigFlyweight> keys = new HashMap<>();
+    //reads go straight to the map without locking, the writes (register, setValue and reset) are serialized on the steward
+    private final Map<String, ConfigItem> keys = new ConcurrentHashMap<>();
     ConfigFlyweightFactory configFlyweightFactory = new ConfigFlyweightFactory(this);
+    final LazyConfigRegisters lazyRegisters = new LazyConfigRegisters(AutoConfig::runLazyRegister);
+
+    //the bindings of the keys are rebuilt when it is changed, see ConfigItem.bind
+    volatile ConfigMetrics metrics = ConfigMetrics.NOOP;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
 
+    //bumped under the steward lock whenever a value could have changed, the snapshots are rebuilt only when it moves
+    private volatile long version = 0;
+    private volatile ConfigSnapshot fullSnapshot = null;
+    private final Map<List<String>, ConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_SNAPSHOTS = 256;
 
-    synchronized void register(String key, AutoConfig.Type type, String accessor, String defaultLoader, boolean overwrite) {
+    //the registers could run in parallel, only the flyweight lookup and the publishing of the item take the lock
+    void register(String key, AutoConfig.Type type, String accessor, String defaultLoader, boolean overwrite) {
 
         if (key == null) {
             ConfigLog.e("register key is null !!!");
@@ -113,22 +237,23 @@ class ConfigSteward {
         register(key, configFlyweight, overwrite);
     }
 
-    synchronized boolean isKeyDefined(String key) {
-        return keys.containsKey(key);
+    boolean isKeyDefined(String key) {
+        return lookup(key) != null;
     }
 
-    synchronized Object getCurValue(String key) {
-        return ConfigCheckUtil.getValue(key, keys.get(key));
+    Object getCurValue(String key) {
+        return getValue(lookup(key));
     }
 
     AutoConfig.Type getKeyType(String key) {
-        ConfigFlyweight flyweight = keys.get(key);
-        if (flyweight == null) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
             ConfigLog.e("getKeyType is null --> " + key);
             return null;
         }
 
-        return flyweight.getType();
+        return item.getType();
     }
 
     /**
@@ -137,38 +262,633 @@ class ConfigSteward {
      * 2. the same with current value
      */
     synchronized int setValue(String key, Object value) {
-        if (!isKeyDefined(key)) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
             ConfigLog.e("setValue " + key + "is not registered!!!");
             return 0;
         }
-        return ConfigCheckUtil.setValue(key, value, keys.get(key));
+
+        return setValue(item, value);
     }
 
-    synchronized Object getValue(String key) {
-        ConfigFlyweight flyweight = keys.get(key);
-        if (flyweight == null) {
+    synchronized int setValue(ConfigItem item, Object value) {
+        int res = ConfigCheckUtil.setValue(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(value);
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    ConfigItem getItem(String key) {
+        return lookup(key);
+    }
+
+    ConfigItem findItem(String key) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("config " + key + "is not registered correctly!!!");
+        }
+
+        return item;
+    }
+
+    //the values are grouped by the accessor and written with one setAll call of each accessor,
+    //return the changes which have been written successfully
+    synchronized Map<String, Object> setValues(Map<ConfigItem, Object> values) {
+        Map<ConfigAccessor, List<ConfigItem>> groups = new IdentityHashMap<>();
+        for (ConfigItem item : values.keySet()) {
+            ConfigAccessor accessor = item.getFlyweight().getConfigAccessor();
+            if (accessor == null) {
+                ConfigLog.e("setValues : accessor is null  --> " + item.getKey());
+                continue;
+            }
+
+            groups.computeIfAbsent(accessor, k -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<ConfigAccessor, List<ConfigItem>> group : groups.entrySet()) {
+            Map<String, Object> groupValues = new LinkedHashMap<>();
+            Map<String, AutoConfig.Type> groupTypes = new HashMap<>();
+            for (ConfigItem item : group.getValue()) {
+                groupValues.put(item.getKey(), values.get(item));
+                groupTypes.put(item.getKey(), item.getType());
+            }
+
+            boolean res = group.getKey().setAll(Collections.unmodifiableMap(groupValues)
+                    , Collections.unmodifiableMap(groupTypes));
+            changed();
+            //the accessor could have written a part of them when failed, so the cache is dropped,
+            //the cache is updated before the version, a reader seeing the new version never gets the old value
+            for (ConfigItem item : group.getValue()) {
+                if (res) {
+                    ConfigMetrics.KeyRecorder recorder = item.bind().recorder;
+                    if (recorder != null) {
+                        recorder.onWrite(-1);
+                    }
+                }
+
+                if (res && item.isCacheEnabled()) {
+                    item.setCachedValue(values.get(item));
+                } else {
+                    item.invalidate();
+                }
+                item.setVersion(version);
+            }
+
+            if (res) {
+                changes.putAll(groupValues);
+            } else {
+                ConfigLog.e("setValues : failed!! --> " + groupValues.keySet());
+            }
+        }
+
+        return changes;
+    }
+
+    Object getValue(String key) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
             ConfigLog.e("config " + key + "is not registered correctly!!!");
             return null;
         }
 
-        return ConfigCheckUtil.getValue(key, flyweight);
+        return getValue(item);
     }
 
     public synchronized boolean reset(String key) {
-        if (!isKeyDefined(key)) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
             ConfigLog.e("reset failed !!!, key is not defined --> " + key);
             return false;
         }
 
-        return ConfigCheckUtil.reset(key, keys.get(key));
+        //written before the version is bumped like the setters, otherwise a near cache reader in between could
+        //stamp the old value with the new version
+        boolean res = ConfigCheckUtil.reset(item);
+        item.invalidate();
+        if (res) {
+            changed(item);
+        }
+        return res;
     }
 
-    private void register(String key, ConfigFlyweight configFlyweight, boolean overwrite) {
-        if (!overwrite && isKeyDefined(key)) {
-            ConfigLog.e("the key : " + key + " has already defined !!");
+    //used by the typed handles to resolve the item once, the handle keeps it for the later reading
+    ConfigItem bind(String key, AutoConfig.Type type) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("bind failed !!!, key is not defined --> " + key);
+            return null;
+        }
+
+        if (item.getType() != type) {
+            ConfigLog.e("bind failed !!!, " + key + " is " + item.getType() + " but not " + type);
+            return null;
+        }
+
+        return item;
+    }
+
+    boolean setCacheEnabled(String key, boolean enabled) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("setCacheEnabled failed !!!, key is not defined --> " + key);
+            return false;
+        }
+
+        synchronized (this) {
+            item.setCacheEnabled(enabled);
+        }
+        return true;
+    }
+
+    boolean setNearCacheEnabled(String key, boolean enabled) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("setNearCacheEnabled failed !!!, key is not defined --> " + key);
+            return false;
+        }
+
+        item.setNearCacheEnabled(enabled);
+        return true;
+    }
+
+    synchronized void invalidate(String key) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("invalidate failed !!!, key is not defined --> " + key);
             return;
         }
 
-        keys.put(key, configFlyweight);
+        item.invalidate();
+        changed(item);
+    }
+
+    synchronized void invalidateAll() {
+        changed();
+        for (ConfigItem item : keys.values()) {
+            item.invalidate();
+            item.setVersion(version);
+        }
+    }
+
+    //the accessor has changed the value by itself, return false if the key is not registered
+    synchronized boolean changedOutside(String key) {
+        ConfigItem item = keys.get(key);
+        if (item == null) {
+            return false;
+        }
+
+        item.invalidate();
+        changed(item);
+        return true;
+    }
+
+    //the key could belong to a register which has not run yet in the lazy mode
+    private ConfigItem lookup(String key) {
+        ConfigItem item = keys.get(key);
+        if (item != null || key == null || !lazyRegisters.isPending(key)) {
+            return item;
+        }
+
+        synchronized (this) {
+            lazyRegisters.runFor(key, configFlyweightFactory);
+            return keys.get(key);
+        }
+    }
+
+    synchronized void runPendingRegisters() {
+        if (lazyRegisters.hasPending()) {
+            lazyRegisters.runAll(configFlyweightFactory);
+        }
+    }
+
+    //the items are bound again with the new metrics when they are read next time
+    void setMetrics(ConfigMetrics metrics) {
+        this.metrics = metrics != null ? metrics : ConfigMetrics.NOOP;
+    }
+
+    ConfigMetrics getMetrics() {
+        return metrics;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    //-1 if the key is not defined
+    long versionOf(String key) {
+        ConfigItem item = lookup(key);
+        if (item == null) {
+            metrics.onUnknownKey(key);
+            ConfigLog.e("versionOf failed !!!, key is not defined --> " + key);
+            return -1;
+        }
+
+        return item.getVersion();
+    }
+
+    //the keys are null means all the keys, a snapshot is shared until the version changes
+    ConfigSnapshot snapshot(String[] keys) {
+        if (keys == null && lazyRegisters.hasPending()) {
+            runPendingRegisters();
+        }
+
+        long curVersion = version;
+        if (keys == null) {
+            ConfigSnapshot snapshot = fullSnapshot;
+            if (snapshot == null || snapshot.getVersion() != curVersion) {
+                snapshot = buildSnapshot(null);
+                fullSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+
+        List<String> id = Arrays.asList(keys.clone());
+        ConfigSnapshot snapshot = snapshots.get(id);
+        if (snapshot == null || snapshot.getVersion() != curVersion) {
+            snapshot = buildSnapshot(id);
+            if (snapshots.size() >= MAX_CACHED_SNAPSHOTS) {
+                snapshots.clear();
+            }
+            snapshots.put(id, snapshot);
+        }
+        return snapshot;
+    }
+
+    //all the values are read under the steward lock, so no writer could interleave between them
+    private synchronized ConfigSnapshot buildSnapshot(List<String> ids) {
+        Collection<ConfigItem> items;
+        if (ids == null) {
+            items = keys.values();
+        } else {
+            items = new ArrayList<>(ids.size());
+            for (String key : ids) {
+                ConfigItem item = findItem(key);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        }
+
+        List<ConfigItem> snapshotItems = new ArrayList<>(items.size());
+        List<Object> values = new ArrayList<>(items.size());
+        for (ConfigItem item : items) {
+            snapshotItems.add(item);
+            values.add(getValue(item));
+        }
+
+        return new ConfigSnapshot(version, snapshotItems, values);
+    }
+
+    long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    //the near cache is checked before anything else, a slot is filled with the version read before resolving the value,
+    //so a change between them leaves a stale version in the slot but never a stale value with the current version
+    Object getValue(ConfigItem item) {
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveValue(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null && entry.value != null) {
+            cachedRead(item);
+            return entry.value;
+        }
+
+        Object value = resolveValue(item);
+        if (value != null) {
+            nearCache.put(version, value, ConfigBits.toBits(item.getType(), value));
+        }
+        return value;
+    }
+
+    //the cached reads never reach the metered accessor, so they are counted here, without the timing
+    private void cachedRead(ConfigItem item) {
+        if (metrics == ConfigMetrics.NOOP) {
+            return;
+        }
+
+        ConfigMetrics.KeyRecorder recorder = item.bind().recorder;
+        if (recorder != null) {
+            recorder.onRead(-1);
+        }
+    }
+
+    private Object resolveValue(ConfigItem item) {
+        if (!item.isCacheEnabled()) {
+            return ConfigCheckUtil.getValue(item);
+        }
+
+        Object value = item.getCachedValue();
+        if (value != null) {
+            cacheHits.increment();
+            cachedRead(item);
+            return value;
+        }
+
+        cacheMisses.increment();
+        return loadCachedValue(item);
+    }
+
+    int getInt(ConfigItem item) {
+        if (item.getType() != AutoConfig.Type.INT) {
+            return (Integer) mismatchedValue(item);
+        }
+
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveInt(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null) {
+            cachedRead(item);
+            return (int) entry.bits;
+        }
+
+        int value = resolveInt(item);
+        nearCache.put(version, null, value);
+        return value;
+    }
+
+    private int resolveInt(ConfigItem item) {
+        if (item.isCacheEnabled()) {
+            return (Integer) resolveValue(item);
+        }
+
+        return ConfigCheckUtil.getInt(item);
+    }
+
+    long getLong(ConfigItem item) {
+        if (item.getType() != AutoConfig.Type.LONG) {
+            return (Long) mismatchedValue(item);
+        }
+
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveLong(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null) {
+            cachedRead(item);
+            return entry.bits;
+        }
+
+        long value = resolveLong(item);
+        nearCache.put(version, null, value);
+        return value;
+    }
+
+    private long resolveLong(ConfigItem item) {
+        if (item.isCacheEnabled()) {
+            return (Long) resolveValue(item);
+        }
+
+        return ConfigCheckUtil.getLong(item);
+    }
+
+    float getFloat(ConfigItem item) {
+        if (item.getType() == AutoConfig.Type.DOUBLE) {
+            return (float) getDouble(item);
+        }
+
+        if (item.getType() != AutoConfig.Type.FLOAT) {
+            return (Float) mismatchedValue(item);
+        }
+
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveFloat(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null) {
+            cachedRead(item);
+            return Float.intBitsToFloat((int) entry.bits);
+        }
+
+        float value = resolveFloat(item);
+        nearCache.put(version, null, Float.floatToRawIntBits(value));
+        return value;
+    }
+
+    private float resolveFloat(ConfigItem item) {
+        if (item.isCacheEnabled()) {
+            //the accessor could give a Double for a float key, converted the same as ConfigAccessor.getFloat
+            return ((Number) resolveValue(item)).floatValue();
+        }
+
+        return ConfigCheckUtil.getFloat(item);
+    }
+
+    double getDouble(ConfigItem item) {
+        if (item.getType() != AutoConfig.Type.DOUBLE) {
+            return (Double) mismatchedValue(item);
+        }
+
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveDouble(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null) {
+            cachedRead(item);
+            return Double.longBitsToDouble(entry.bits);
+        }
+
+        double value = resolveDouble(item);
+        nearCache.put(version, null, Double.doubleToRawLongBits(value));
+        return value;
+    }
+
+    private double resolveDouble(ConfigItem item) {
+        if (item.isCacheEnabled()) {
+            return ((Number) resolveValue(item)).doubleValue();
+        }
+
+        return ConfigCheckUtil.getDouble(item);
+    }
+
+    boolean getBoolean(ConfigItem item) {
+        if (item.getType() != AutoConfig.Type.BOOLEAN) {
+            return (Boolean) mismatchedValue(item);
+        }
+
+        ConfigNearCache nearCache = item.getNearCache();
+        if (nearCache == null) {
+            return resolveBoolean(item);
+        }
+
+        long version = item.getVersion();
+        ConfigNearCache.Entry entry = nearCache.get(version);
+        if (entry != null) {
+            cachedRead(item);
+            return entry.bits != 0;
+        }
+
+        boolean value = resolveBoolean(item);
+        nearCache.put(version, null, value ? 1L : 0L);
+        return value;
+    }
+
+    private boolean resolveBoolean(ConfigItem item) {
+        if (item.isCacheEnabled()) {
+            return (Boolean) resolveValue(item);
+        }
+
+        return ConfigCheckUtil.getBoolean(item);
+    }
+
+    //the primitive getter does not match the type of the key, the boxed value is cast as before
+    private Object mismatchedValue(ConfigItem item) {
+        metrics.onTypeMismatch(item.getKey());
+        return getValue(item);
+    }
+
+    synchronized int setInt(ConfigItem item, int value) {
+        int res = ConfigCheckUtil.setInt(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(Integer.valueOf(value));
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    synchronized int setLong(ConfigItem item, long value) {
+        int res = ConfigCheckUtil.setLong(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(Long.valueOf(value));
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    synchronized int setFloat(ConfigItem item, float value) {
+        int res = ConfigCheckUtil.setFloat(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(Float.valueOf(value));
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    synchronized int setDouble(ConfigItem item, double value) {
+        int res = ConfigCheckUtil.setDouble(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(Double.valueOf(value));
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    synchronized int setBoolean(ConfigItem item, boolean value) {
+        int res = ConfigCheckUtil.setBoolean(item, value);
+        if (res == 1) {
+            if (item.isCacheEnabled()) {
+                item.setCachedValue(Boolean.valueOf(value));
+            }
+            changed(item);
+        }
+
+        return res;
+    }
+
+    //resolve under the write lock, so that a concurrent setValue could not be overwritten by a stale value
+    private synchronized Object loadCachedValue(ConfigItem item) {
+        Object value = item.getCachedValue();
+        if (value != null) {
+            return value;
+        }
+
+        value = ConfigCheckUtil.getValue(item);
+        if (item.isCacheEnabled()) {
+            item.setCachedValue(value);
+        }
+
+        return value;
+    }
+
+    private void register(String key, ConfigFlyweight configFlyweight, boolean overwrite) {
+        ConfigItem item = new ConfigItem(key, configFlyweight);
+        //the constant default of an indexed loader is checked here once, if the loader has been registered
+        item.bind();
+        synchronized (this) {
+            if (overwrite) {
+                keys.put(key, item);
+            } else if (keys.putIfAbsent(key, item) != null) {
+                ConfigLog.e("the key : " + key + " has already defined !!");
+                return;
+            }
+            changed(item);
+        }
+    }
+
+    //the keys of a registry are bound outside the lock and published together with one version bump
+    void registerAll(List<String> keyList, List<ConfigFlyweight> flyweights) {
+        List<ConfigItem> items = new ArrayList<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            ConfigItem item = new ConfigItem(keyList.get(i), flyweights.get(i));
+            item.bind();
+            items.add(item);
+        }
+
+        synchronized (this) {
+            for (ConfigItem item : items) {
+                if (keys.putIfAbsent(item.getKey(), item) != null) {
+                    ConfigLog.e("the key : " + item.getKey() + " has already defined !!");
+                }
+            }
+            changed();
+        }
+    }
+
+    //only called under the steward lock
+    private void changed() {
+        version++;
+    }
+
+    //the version of the key is the global version when it was changed last time
+    private void changed(ConfigItem item) {
+        version++;
+        item.setVersion(version);
     }
 }
@@ -22,4 +22,25 @@ import javax.validation.constraints.NotNull;
 public interface DefaultValueLoader {
     @NotNull
     Object getDefaultValue(@NotNull String key, @NotNull AutoConfig.Type type);
+
+    //the primitive default values, override them to avoid the boxing, the default ones bridge to getDefaultValue
+    default int getDefaultInt(@NotNull String key) {
+        return (Integer) getDefaultValue(key, AutoConfig.Type.INT);
+    }
+
+    default long getDefaultLong(@NotNull String key) {
+        return (Long) getDefaultValue(key, AutoConfig.Type.LONG);
+    }
+
+    default float getDefaultFloat(@NotNull String key) {
+        return (Float) getDefaultValue(key, AutoConfig.Type.FLOAT);
+    }
+
+    default double getDefaultDouble(@NotNull String key) {
+        return (Double) getDefaultValue(key, AutoConfig.Type.DOUBLE);
+    }
+
+    default boolean getDefaultBoolean(@NotNull String key) {
+        return (Boolean) getDefaultValue(key, AutoConfig.Type.BOOLEAN);
+    }
 }
@@ -0,0 +1,494 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+//loads the default values from a properties, flat YAML or JSON file.
+//The file is parsed once by a streaming parser into the raw strings, the nested keys are joined by '.'.
+//A raw string is converted to the type of the key when it is asked the first time, and the converted value is kept,
+//so the later reading is a map lookup. The keys which are not in the file go to the fallback loader if there is one.
+public final class FileDefaultValueLoader implements DefaultValueLoader {
+
+    public enum Format {
+        PROPERTIES,
+        YAML,
+        JSON
+    }
+
+    private final Map<String, String> raw;
+    private final Map<String, Object> converted = new ConcurrentHashMap<>();
+    private final DefaultValueLoader fallback;
+
+    public FileDefaultValueLoader(File file) throws IOException {
+        this(file, null);
+    }
+
+    //the format is decided by the extension of the file, properties by default
+    public FileDefaultValueLoader(File file, DefaultValueLoader fallback) throws IOException {
+        this(file, formatOf(file), fallback);
+    }
+
+    public FileDefaultValueLoader(File file, Format format, DefaultValueLoader fallback) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath())
+                , StandardCharsets.UTF_8), 64 * 1024)) {
+            this.raw = parse(reader, format);
+        }
+        this.fallback = fallback;
+    }
+
+    public FileDefaultValueLoader(Reader reader, Format format, DefaultValueLoader fallback) throws IOException {
+        this.raw = parse(reader instanceof BufferedReader ? reader : new BufferedReader(reader), format);
+        this.fallback = fallback;
+    }
+
+    public int size() {
+        return raw.size();
+    }
+
+    public boolean contains(String key) {
+        return raw.containsKey(key);
+    }
+
+    @Override
+    public Object getDefaultValue(@NotNull String key, @NotNull AutoConfig.Type type) {
+        Object value = converted.get(key);
+        if (type.isTypeOf(value)) {
+            return value;
+        }
+
+        String text = raw.get(key);
+        if (text == null) {
+            return fallback != null ? fallback.getDefaultValue(key, type) : null;
+        }
+
+        value = convert(text, type);
+        if (value == null) {
+            ConfigLog.e("default value of " + key + " is not " + type + " --> " + text);
+            return null;
+        }
+
+        converted.put(key, value);
+        return value;
+    }
+
+    @Override
+    public int getDefaultInt(@NotNull String key) {
+        return (Integer) check(key, AutoConfig.Type.INT);
+    }
+
+    @Override
+    public long getDefaultLong(@NotNull String key) {
+        return (Long) check(key, AutoConfig.Type.LONG);
+    }
+
+    @Override
+    public float getDefaultFloat(@NotNull String key) {
+        return (Float) check(key, AutoConfig.Type.FLOAT);
+    }
+
+    @Override
+    public double getDefaultDouble(@NotNull String key) {
+        return (Double) check(key, AutoConfig.Type.DOUBLE);
+    }
+
+    @Override
+    public boolean getDefaultBoolean(@NotNull String key) {
+        return (Boolean) check(key, AutoConfig.Type.BOOLEAN);
+    }
+
+    private Object check(String key, AutoConfig.Type type) {
+        Object value = getDefaultValue(key, type);
+        if (!type.isTypeOf(value)) {
+            throw new ConfigRuntimeException("no " + type + " default value --> " + key);
+        }
+
+        return value;
+    }
+
+    static Object convert(String text, AutoConfig.Type type) {
+        String value = text.trim();
+        try {
+            switch (type) {
+                case INT:
+                    return Integer.valueOf(value);
+                case LONG:
+                    return Long.valueOf(value);
+                case FLOAT:
+                    return Float.valueOf(value);
+                case DOUBLE:
+                    return Double.valueOf(value);
+                case BOOLEAN:
+                    if ("true".equalsIgnoreCase(value)) {
+                        return Boolean.TRUE;
+                    }
+                    return "false".equalsIgnoreCase(value) ? Boolean.FALSE : null;
+                default:
+                    return text;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Format formatOf(File file) {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".json")) {
+            return Format.JSON;
+        }
+
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            return Format.YAML;
+        }
+
+        return Format.PROPERTIES;
+    }
+
+    static Map<String, String> parse(Reader reader, Format format) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        switch (format) {
+            case JSON:
+                new JsonParser(reader, values).parse();
+                break;
+            case YAML:
+                parseYaml((BufferedReader) reader, values);
+                break;
+            default:
+                parseProperties(reader, values);
+        }
+
+        return values;
+    }
+
+    //Properties parses the lines and the escapes, the entries go to the map directly instead of the hashtable
+    private static void parseProperties(Reader reader, Map<String, String> values) throws IOException {
+        new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                return values.put((String) key, (String) value);
+            }
+        }.load(reader);
+    }
+
+    //only the mappings are supported, the nested ones are joined by '.',
+    //the lists, the block scalars and the flow values are skipped with all the lines indented deeper than them
+    private static void parseYaml(BufferedReader reader, Map<String, String> values) throws IOException {
+        Deque<Integer> indents = new ArrayDeque<>();
+        Deque<String> prefixes = new ArrayDeque<>();
+        String line;
+        int lineNumber = 0;
+        int skipIndent = -1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int indent = 0;
+            while (indent < line.length() && line.charAt(indent) == ' ') {
+                indent++;
+            }
+
+            String content = line.substring(indent).trim();
+            if (content.isEmpty() || content.startsWith("#") || content.equals("---") || content.equals("...")) {
+                continue;
+            }
+
+            if (skipIndent >= 0) {
+                if (indent > skipIndent) {
+                    continue;
+                }
+                skipIndent = -1;
+            }
+
+            if (content.startsWith("- ") || content.equals("-")) {
+                ConfigLog.d("yaml lists are not supported, skipped --> line " + lineNumber);
+                skipIndent = indent;
+                continue;
+            }
+
+            int colon = yamlColon(content);
+            if (colon < 0) {
+                throw new IOException("bad yaml mapping at line " + lineNumber + " --> " + line);
+            }
+
+            while (!indents.isEmpty() && indents.peek() >= indent) {
+                indents.pop();
+                prefixes.pop();
+            }
+
+            String key = (prefixes.isEmpty() ? "" : prefixes.peek()) + yamlScalar(content.substring(0, colon).trim());
+            String rest = content.substring(colon + 1).trim();
+            if (rest.isEmpty() || rest.startsWith("#")) {
+                indents.push(indent);
+                prefixes.push(key + ".");
+            } else if (rest.startsWith("|") || rest.startsWith(">") || rest.startsWith("[") || rest.startsWith("{")) {
+                ConfigLog.d("yaml block and flow values are not supported, skipped --> " + key);
+                skipIndent = indent;
+            } else {
+                values.put(key, yamlScalar(rest));
+            }
+        }
+    }
+
+    //the first ':' followed by a space or the end, out of the quotes
+    private static int yamlColon(String content) {
+        char quote = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static String yamlScalar(String text) {
+        if (text.startsWith("'")) {
+            int end = text.indexOf('\'', 1);
+            while (end > 0 && end + 1 < text.length() && text.charAt(end + 1) == '\'') {
+                end = text.indexOf('\'', end + 2);
+            }
+            return text.substring(1, end < 0 ? text.length() : end).replace("''", "'");
+        }
+
+        if (text.startsWith("\"")) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 1; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    break;
+                }
+
+                if (c == '\\' && i + 1 < text.length()) {
+                    c = text.charAt(++i);
+                    builder.append(c == 'n' ? '\n' : c == 't' ? '\t' : c == 'r' ? '\r' : c);
+                } else {
+                    builder.append(c);
+                }
+            }
+            return builder.toString();
+        }
+
+        int comment = text.indexOf(" #");
+        return (comment < 0 ? text : text.substring(0, comment)).trim();
+    }
+
+    //reads the json by characters, the objects are flattened, the arrays and nulls are skipped
+    private static final class JsonParser {
+        private final Reader reader;
+        private final Map<String, String> values;
+        private final StringBuilder builder = new StringBuilder();
+        //read by chunks, the reader is not asked for every character
+        private final char[] chunk = new char[8192];
+        private int chunkPosition = 0;
+        private int chunkLimit = 0;
+        private int pushed = -2;
+        private long position = 0;
+
+        JsonParser(Reader reader, Map<String, String> values) {
+            this.reader = reader;
+            this.values = values;
+        }
+
+        void parse() throws IOException {
+            expect('{');
+            parseObject("");
+            if (next() != -1) {
+                throw error("unexpected content after the root object");
+            }
+        }
+
+        private void parseObject(String prefix) throws IOException {
+            int c = next();
+            if (c == '}') {
+                return;
+            }
+
+            while (true) {
+                if (c != '"') {
+                    throw error("expect a key");
+                }
+
+                String key = prefix + readString();
+                expect(':');
+                parseValue(key);
+
+                c = next();
+                if (c == '}') {
+                    return;
+                }
+                if (c != ',') {
+                    throw error("expect ',' or '}'");
+                }
+                c = next();
+            }
+        }
+
+        private void parseValue(String key) throws IOException {
+            int c = next();
+            if (c == '{') {
+                parseObject(key + ".");
+            } else if (c == '"') {
+                values.put(key, readString());
+            } else if (c == '[') {
+                ConfigLog.d("json arrays are not supported, skipped --> " + key);
+                skipArray();
+            } else if (c == -1) {
+                throw error("unexpected end");
+            } else {
+                String literal = readLiteral(c);
+                if (!"null".equals(literal)) {
+                    values.put(key, literal);
+                }
+            }
+        }
+
+        private void skipArray() throws IOException {
+            int depth = 1;
+            while (depth > 0) {
+                int c = read();
+                if (c == -1) {
+                    throw error("unexpected end in array");
+                } else if (c == '"') {
+                    readString();
+                } else if (c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ']' || c == '}') {
+                    depth--;
+                }
+            }
+        }
+
+        private String readString() throws IOException {
+            builder.setLength(0);
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw error("unexpected end in string");
+                }
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    builder.append((char) c);
+                    continue;
+                }
+
+                c = read();
+                switch (c) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw error("bad unicode escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        builder.append((char) code);
+                        break;
+                    case -1:
+                        throw error("unexpected end in string");
+                    default:
+                        builder.append((char) c);
+                }
+            }
+        }
+
+        private String readLiteral(int first) throws IOException {
+            builder.setLength(0);
+            int c = first;
+            while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                builder.append((char) c);
+                c = read();
+            }
+            pushed = c;
+            return builder.toString();
+        }
+
+        private void expect(char expected) throws IOException {
+            if (next() != expected) {
+                throw error("expect '" + expected + "'");
+            }
+        }
+
+        //the next character which is not a whitespace
+        private int next() throws IOException {
+            int c = read();
+            while (c != -1 && Character.isWhitespace(c)) {
+                c = read();
+            }
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (pushed != -2) {
+                int c = pushed;
+                pushed = -2;
+                return c;
+            }
+
+            if (chunkPosition == chunkLimit) {
+                chunkLimit = reader.read(chunk, 0, chunk.length);
+                chunkPosition = 0;
+                if (chunkLimit <= 0) {
+                    chunkLimit = 0;
+                    return -1;
+                }
+            }
+
+            position++;
+            return chunk[chunkPosition++];
+        }
+
+        private IOException error(String msg) {
+            return new IOException("bad json at " + position + " : " + msg);
+        }
+    }
+}
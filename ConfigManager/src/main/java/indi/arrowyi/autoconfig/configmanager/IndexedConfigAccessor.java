@@ -0,0 +1,71 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+
+//an accessor which knows all its keys in advance, every key owns a dense ordinal.
+//The ordinal of a key is resolved once when the key is bound, the later accessing goes by the ordinal,
+//so there is no hashing or comparing of the key strings on the hot path. The generated default accessor is one of them.
+public interface IndexedConfigAccessor extends ConfigAccessor {
+    //-1 if the key is not known by the accessor
+    int indexOf(@NotNull String key);
+
+    boolean set(int index, @NotNull AutoConfig.Type type, @NotNull Object value);
+
+    Object get(int index, @NotNull AutoConfig.Type type, @NotNull Object defaultValue);
+
+    default int getInt(int index, int defaultValue) {
+        return (Integer) get(index, AutoConfig.Type.INT, defaultValue);
+    }
+
+    default long getLong(int index, long defaultValue) {
+        return (Long) get(index, AutoConfig.Type.LONG, defaultValue);
+    }
+
+    default float getFloat(int index, float defaultValue) {
+        return (Float) get(index, AutoConfig.Type.FLOAT, defaultValue);
+    }
+
+    default double getDouble(int index, double defaultValue) {
+        return (Double) get(index, AutoConfig.Type.DOUBLE, defaultValue);
+    }
+
+    default boolean getBoolean(int index, boolean defaultValue) {
+        return (Boolean) get(index, AutoConfig.Type.BOOLEAN, defaultValue);
+    }
+
+    default boolean setInt(int index, int value) {
+        return set(index, AutoConfig.Type.INT, value);
+    }
+
+    default boolean setLong(int index, long value) {
+        return set(index, AutoConfig.Type.LONG, value);
+    }
+
+    default boolean setFloat(int index, float value) {
+        return set(index, AutoConfig.Type.FLOAT, value);
+    }
+
+    default boolean setDouble(int index, double value) {
+        return set(index, AutoConfig.Type.DOUBLE, value);
+    }
+
+    default boolean setBoolean(int index, boolean value) {
+        return set(index, AutoConfig.Type.BOOLEAN, value);
+    }
+}
@@ -0,0 +1,48 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+
+//a loader which knows all its keys in advance, the default values are read by the dense ordinal of the key,
+//see IndexedConfigAccessor
+public interface IndexedDefaultValueLoader extends DefaultValueLoader {
+    //-1 if the key is not known by the loader
+    int indexOf(@NotNull String key);
+
+    Object getDefaultValue(int index);
+
+    default int getDefaultInt(int index) {
+        return (Integer) getDefaultValue(index);
+    }
+
+    default long getDefaultLong(int index) {
+        return (Long) getDefaultValue(index);
+    }
+
+    default float getDefaultFloat(int index) {
+        return (Float) getDefaultValue(index);
+    }
+
+    default double getDefaultDouble(int index) {
+        return (Double) getDefaultValue(index);
+    }
+
+    default boolean getDefaultBoolean(int index) {
+        return (Boolean) getDefaultValue(index);
+    }
+}
@@ -0,0 +1,252 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+//counts the reads and writes of every key and accessor with the striped adders, and times one of every
+//sampleRate calls, it is exported to the platform MBean server by register :
+//  JmxConfigMetrics metrics = new JmxConfigMetrics();
+//  metrics.register();
+//  AutoConfig.setMetrics(metrics);
+public final class JmxConfigMetrics implements ConfigMetrics, JmxConfigMetricsMXBean {
+    public static final String OBJECT_NAME = "indi.arrowyi.autoconfig:type=ConfigMetrics";
+    public static final int DEFAULT_SAMPLE_RATE = 64;
+
+    private static final class Counters {
+        final LongAdder reads = new LongAdder();
+        final LongAdder writes = new LongAdder();
+        //only the accessors are timed, a histogram of every key costs too much
+        final LatencyHistogram latency;
+
+        Counters(boolean timed) {
+            latency = timed ? new LatencyHistogram() : null;
+        }
+
+        void reset() {
+            reads.reset();
+            writes.reset();
+            if (latency != null) {
+                latency.reset();
+            }
+        }
+    }
+
+    private final Map<String, Counters> keys = new ConcurrentHashMap<>();
+    private final Map<String, Counters> accessors = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> loaders = new ConcurrentHashMap<>();
+    private final LongAdder typeMismatches = new LongAdder();
+    private final LongAdder unknownKeys = new LongAdder();
+    private final LatencyHistogram dispatch = new LatencyHistogram();
+    private volatile int sampleRate;
+
+    public JmxConfigMetrics() {
+        this(DEFAULT_SAMPLE_RATE);
+    }
+
+    public JmxConfigMetrics(int sampleRate) {
+        setSampleRate(sampleRate);
+    }
+
+    //return false if it could not be registered, the platform MBean server could have one already
+    public boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            ConfigLog.w("register the metrics MBean failed", e);
+            return false;
+        }
+    }
+
+    public void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            ConfigLog.w("unregister the metrics MBean failed", e);
+        }
+    }
+
+    @Override
+    public KeyRecorder recorderOf(String key, String accessor, String loader) {
+        return new Recorder(keys.computeIfAbsent(key, k -> new Counters(false))
+                , accessors.computeIfAbsent(accessor, k -> new Counters(true))
+                , loaders.computeIfAbsent(loader, k -> new LatencyHistogram()));
+    }
+
+    @Override
+    public void onTypeMismatch(String key) {
+        typeMismatches.increment();
+    }
+
+    @Override
+    public void onUnknownKey(String key) {
+        unknownKeys.increment();
+    }
+
+    @Override
+    public void onListenerDispatched(long nanos) {
+        dispatch.record(nanos);
+    }
+
+    @Override
+    public long getReadCount() {
+        long count = 0;
+        for (Counters counters : accessors.values()) {
+            count += counters.reads.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getWriteCount() {
+        long count = 0;
+        for (Counters counters : accessors.values()) {
+            count += counters.writes.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getTypeMismatchCount() {
+        return typeMismatches.sum();
+    }
+
+    @Override
+    public long getUnknownKeyCount() {
+        return unknownKeys.sum();
+    }
+
+    @Override
+    public Map<String, Long> getKeyReadCounts() {
+        return collect(keys, counters -> counters.reads.sum());
+    }
+
+    @Override
+    public Map<String, Long> getKeyWriteCounts() {
+        return collect(keys, counters -> counters.writes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getAccessorReadCounts() {
+        return collect(accessors, counters -> counters.reads.sum());
+    }
+
+    @Override
+    public Map<String, Long> getAccessorWriteCounts() {
+        return collect(accessors, counters -> counters.writes.sum());
+    }
+
+    @Override
+    public Map<String, String> getAccessorLatencies() {
+        return collect(accessors, counters -> counters.latency.summary());
+    }
+
+    @Override
+    public Map<String, String> getLoaderLatencies() {
+        return collect(loaders, LatencyHistogram::summary);
+    }
+
+    @Override
+    public String getListenerDispatchLatency() {
+        return dispatch.summary();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate should be positive : " + sampleRate);
+        }
+
+        this.sampleRate = sampleRate;
+    }
+
+    //the counters are reset in place, the recorders bound to the keys keep working
+    @Override
+    public void reset() {
+        keys.values().forEach(Counters::reset);
+        accessors.values().forEach(Counters::reset);
+        loaders.values().forEach(LatencyHistogram::reset);
+        typeMismatches.reset();
+        unknownKeys.reset();
+        dispatch.reset();
+    }
+
+    private static <T, R> Map<String, R> collect(Map<String, T> source, Function<T, R> mapper) {
+        Map<String, R> res = new TreeMap<>();
+        for (Map.Entry<String, T> entry : source.entrySet()) {
+            res.put(entry.getKey(), mapper.apply(entry.getValue()));
+        }
+        return res;
+    }
+
+    private final class Recorder implements KeyRecorder {
+        private final Counters key;
+        private final Counters accessor;
+        private final LatencyHistogram loader;
+
+        Recorder(Counters key, Counters accessor, LatencyHistogram loader) {
+            this.key = key;
+            this.accessor = accessor;
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean sample() {
+            int rate = sampleRate;
+            return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+        }
+
+        @Override
+        public void onRead(long nanos) {
+            key.reads.increment();
+            accessor.reads.increment();
+            accessor.latency.record(nanos);
+        }
+
+        @Override
+        public void onWrite(long nanos) {
+            key.writes.increment();
+            accessor.writes.increment();
+            accessor.latency.record(nanos);
+        }
+
+        @Override
+        public void onLoad(long nanos) {
+            loader.record(nanos);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.Map;
+
+//the view of JmxConfigMetrics in the jconsole or any JMX client,
+//the latencies are the summaries of the sampled calls in nanos
+public interface JmxConfigMetricsMXBean {
+    long getReadCount();
+
+    long getWriteCount();
+
+    long getTypeMismatchCount();
+
+    long getUnknownKeyCount();
+
+    Map<String, Long> getKeyReadCounts();
+
+    Map<String, Long> getKeyWriteCounts();
+
+    Map<String, Long> getAccessorReadCounts();
+
+    Map<String, Long> getAccessorWriteCounts();
+
+    Map<String, String> getAccessorLatencies();
+
+    Map<String, String> getLoaderLatencies();
+
+    String getListenerDispatchLatency();
+
+    //one of every sampleRate calls is timed
+    int getSampleRate();
+
+    void setSampleRate(int sampleRate);
+
+    void reset();
+}
@@ -0,0 +1,101 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+//exports the profiling of AutoConfig to the platform MBean server, the profiling could be started from there too
+public final class JmxConfigProfiler implements JmxConfigProfilerMXBean {
+    public static final String OBJECT_NAME = "indi.arrowyi.autoconfig:type=ConfigProfiler";
+    private static final int DUMP_COUNT = 20;
+
+    //return false if it could not be registered, the platform MBean server could have one already
+    public boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            ConfigLog.w("register the profiler MBean failed", e);
+            return false;
+        }
+    }
+
+    public void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            ConfigLog.w("unregister the profiler MBean failed", e);
+        }
+    }
+
+    @Override
+    public boolean isProfiling() {
+        return AutoConfig.isProfiling();
+    }
+
+    @Override
+    public void start(int capacity, int sampleRate, boolean callSites) {
+        AutoConfig.startProfiling(capacity, sampleRate, callSites);
+    }
+
+    @Override
+    public void stop() {
+        AutoConfig.stopProfiling();
+    }
+
+    @Override
+    public String[] getHotKeys() {
+        return toStrings(AutoConfig.getHotKeys(DUMP_COUNT));
+    }
+
+    @Override
+    public String[] getHotCallSites() {
+        return toStrings(AutoConfig.getHotCallSites(DUMP_COUNT));
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder builder = new StringBuilder("hot keys :\n");
+        for (ConfigHotSpot spot : AutoConfig.getHotKeys(DUMP_COUNT)) {
+            builder.append("  ").append(spot).append('\n');
+        }
+
+        builder.append("hot call sites :\n");
+        for (ConfigHotSpot spot : AutoConfig.getHotCallSites(DUMP_COUNT)) {
+            builder.append("  ").append(spot).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String[] toStrings(List<ConfigHotSpot> spots) {
+        String[] res = new String[spots.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = spots.get(i).toString();
+        }
+        return res;
+    }
+}
@@ -0,0 +1,89 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//the latencies are counted in the power of 2 buckets, so the recording is one striped add without any lock,
+//a percentile is reported as the upper bound of its bucket
+final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+
+        buckets[nanos == 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos)].increment();
+        max.accumulate(nanos);
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        max.reset();
+    }
+
+    long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    String summary() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+
+        return "count=" + count + ", p50<=" + percentile(counts, count, 0.5) + "ns, p90<="
+                + percentile(counts, count, 0.9) + "ns, p99<=" + percentile(counts, count, 0.99)
+                + "ns, max=" + max.get() + "ns";
+    }
+
+    private static long percentile(long[] counts, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i + 1) - 1;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+}
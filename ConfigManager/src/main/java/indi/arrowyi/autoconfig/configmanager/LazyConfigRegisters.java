@@ -0,0 +1,210 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+//the registers which are run only when one of their keys is touched first.
+//The processor writes a manifest of every generated register to META-INF/autoconfig/<register class name>,
+//one name in a line with the tag : "k key", "a accessor name" or "l loader name",
+//so a register could be found by its keys without being created.
+class LazyConfigRegisters {
+
+    static final String SERVICES = "META-INF/services/" + ConfigRegister.class.getName();
+    static final String MANIFEST_DIR = "META-INF/autoconfig/";
+
+    private static final class Entry {
+        private final String className;
+        private final ClassLoader classLoader;
+        private final List<String> keys = new ArrayList<>();
+
+        Entry(String className, ClassLoader classLoader) {
+            this.className = className;
+            this.classLoader = classLoader;
+        }
+    }
+
+    private final Map<String, Entry> byKey = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byAccessor = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byLoader = new ConcurrentHashMap<>();
+    private final Consumer<ConfigRegister> runner;
+
+    LazyConfigRegisters(Consumer<ConfigRegister> runner) {
+        this.runner = runner;
+    }
+
+    //return the class names of the registers which have no manifest, they should be run at once
+    List<String> load(ClassLoader classLoader) {
+        List<String> eager = new ArrayList<>();
+        for (String className : registerClassNames(classLoader)) {
+            URL manifest = classLoader.getResource(MANIFEST_DIR + className);
+            if (manifest == null) {
+                eager.add(className);
+                continue;
+            }
+
+            try {
+                addEntry(readManifest(manifest, new Entry(className, classLoader)));
+            } catch (IOException e) {
+                ConfigLog.e("read the register manifest failed --> " + className, e);
+                eager.add(className);
+            }
+        }
+
+        return eager;
+    }
+
+    boolean hasPending() {
+        return !byKey.isEmpty();
+    }
+
+    boolean isPending(String key) {
+        return byKey.containsKey(key);
+    }
+
+    //only called under the steward lock, return false if no register owns the key
+    boolean runFor(String key, ConfigFlyweightFactory factory) {
+        Entry entry = byKey.get(key);
+        if (entry == null) {
+            return false;
+        }
+
+        run(entry);
+        resolveUnassigned(factory);
+        return true;
+    }
+
+    //only called under the steward lock
+    void runAll(ConfigFlyweightFactory factory) {
+        for (Entry entry : new HashSet<>(byKey.values())) {
+            run(entry);
+        }
+        resolveUnassigned(factory);
+    }
+
+    //the keys of the register just run could use the accessors or loaders of the registers still pending
+    private void resolveUnassigned(ConfigFlyweightFactory factory) {
+        boolean ran = true;
+        while (ran) {
+            ran = false;
+            for (String name : factory.getUnassignedAccessors()) {
+                ran |= runProvider(byAccessor.get(name));
+            }
+            for (String name : factory.getUnassignedLoaders()) {
+                ran |= runProvider(byLoader.get(name));
+            }
+        }
+    }
+
+    private boolean runProvider(Entry entry) {
+        if (entry == null) {
+            return false;
+        }
+
+        run(entry);
+        return true;
+    }
+
+    private void run(Entry entry) {
+        for (String key : entry.keys) {
+            byKey.remove(key, entry);
+        }
+        byAccessor.values().removeIf(e -> e == entry);
+        byLoader.values().removeIf(e -> e == entry);
+
+        ConfigRegister register = newRegister(entry.className, entry.classLoader);
+        if (register != null) {
+            runner.accept(register);
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        for (String key : entry.keys) {
+            byKey.putIfAbsent(key, entry);
+        }
+    }
+
+    private Entry readManifest(URL manifest, Entry entry) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(manifest.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() < 3 || line.charAt(1) != ' ') {
+                    continue;
+                }
+
+                String name = line.substring(2);
+                switch (line.charAt(0)) {
+                    case 'k':
+                        entry.keys.add(name);
+                        break;
+                    case 'a':
+                        byAccessor.putIfAbsent(name, entry);
+                        break;
+                    case 'l':
+                        byLoader.putIfAbsent(name, entry);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        return entry;
+    }
+
+    static ConfigRegister newRegister(String className, ClassLoader classLoader) {
+        try {
+            Class<?> registerClass = Class.forName(className, true, classLoader);
+            return (ConfigRegister) registerClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            ConfigLog.e("create the register failed --> " + className, e);
+            return null;
+        }
+    }
+
+    //the same names ServiceLoader finds, but the classes are not loaded
+    static Set<String> registerClassNames(ClassLoader classLoader) {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> services = classLoader.getResources(SERVICES);
+            while (services.hasMoreElements()) {
+                URL service = services.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(service.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String name = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                        if (!name.isEmpty()) {
+                            names.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ConfigLog.e("read the register services failed", e);
+        }
+
+        return names;
+    }
+}
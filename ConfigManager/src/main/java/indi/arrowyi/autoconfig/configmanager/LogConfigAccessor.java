@@ -0,0 +1,555 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+//appends every change to a log file and keeps the latest values in an in-memory index.
+//The writers append their records to a shared buffer, and the first one reaching the commit lock writes the buffer
+//of all of them with one write (and one fsync if sync), so the concurrent writers share the cost of the commit.
+//When the log grows over the threshold and twice the size of the live values, it is compacted in the background
+//into a temp file holding only the live values, which then replaces the log atomically.
+//Every record has a checksum, a torn record at the end of the log is truncated on the startup.
+//The values are published to the index only after their commit is written, so nobody could read a value which is
+//not in the log. When a commit fails, its records are dropped and all the writers of it get false.
+public final class LogConfigAccessor implements ConfigAccessor, Closeable {
+
+    public static final long DEFAULT_COMPACT_THRESHOLD = 4 * 1024 * 1024;
+
+    private static final int MAGIC = 0x41434c47;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 8;
+    //record : payload length, checksum of the payload, payload
+    //payload : type, key length, key, then the bits of the value or the length and bytes of the string
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final class Entry {
+        final AutoConfig.Type type;
+        final long bits;
+        final String string;
+
+        Entry(AutoConfig.Type type, long bits, String string) {
+            this.type = type;
+            this.bits = bits;
+            this.string = string;
+        }
+    }
+
+    private final File file;
+    private final File compactFile;
+    private final boolean sync;
+    private final long compactThreshold;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    //guarded by this, the appending side
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    //the last pending entry of every key, published to the index when its commit is written
+    private Map<String, Entry> pendingEntries = new HashMap<>();
+    //the entries taken out of the pending buffer and being written, null if none
+    private Map<String, Entry> writingEntries = null;
+    private final CRC32 crc = new CRC32();
+    private long appendedSeq = 0;
+    private boolean compacting = false;
+    private boolean closed = false;
+
+    //guarded by the commit lock, which is always taken before this
+    private final Object commitLock = new Object();
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+    private FileChannel channel;
+    private long durableSeq = 0;
+    //the last seq which has been taken out of the pending buffer, written or not
+    private long writtenSeq = 0;
+    //the seq ranges (first -> last) of the failed commits, a writer of them gets false even if a later commit succeeds
+    private final NavigableMap<Long, Long> lostSeqs = new TreeMap<>();
+    private volatile long size;
+    private volatile long compactedSize;
+
+    public LogConfigAccessor(File file) throws IOException {
+        this(file, true, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    //sync forces every commit to the storage device
+    public LogConfigAccessor(File file, boolean sync, long compactThreshold) throws IOException {
+        this.file = file;
+        this.compactFile = new File(file.getPath() + ".compact");
+        this.sync = sync;
+        this.compactThreshold = compactThreshold;
+
+        //left by a compaction which did not finish, the log is still complete
+        Files.deleteIfExists(compactFile.toPath());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ
+                , StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+                size = HEADER_SIZE;
+            } else {
+                size = recover();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        long live = HEADER_SIZE;
+        for (Map.Entry<String, Entry> entry : index.entrySet()) {
+            live += recordSize(entry.getKey(), entry.getValue());
+        }
+        compactedSize = live;
+        compactIfNeeded();
+    }
+
+    @Override
+    public boolean set(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object value) {
+        return type.isTypeOf(value)
+                && write(key, new Entry(type, ConfigBits.toBits(type, value), ConfigBits.stringOf(type, value)));
+    }
+
+    @Override
+    public Object get(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object defaultValue) {
+        Entry entry = entryOf(key, type);
+        if (entry == null) {
+            return defaultValue;
+        }
+
+        return ConfigBits.fromBits(type, entry.bits, entry.string);
+    }
+
+    @Override
+    public int getInt(@NotNull String key, int defaultValue) {
+        Entry entry = entryOf(key, AutoConfig.Type.INT);
+        return entry == null ? defaultValue : (int) entry.bits;
+    }
+
+    @Override
+    public long getLong(@NotNull String key, long defaultValue) {
+        Entry entry = entryOf(key, AutoConfig.Type.LONG);
+        return entry == null ? defaultValue : entry.bits;
+    }
+
+    @Override
+    public float getFloat(@NotNull String key, float defaultValue) {
+        Entry entry = entryOf(key, AutoConfig.Type.FLOAT);
+        return entry == null ? defaultValue : Float.intBitsToFloat((int) entry.bits);
+    }
+
+    @Override
+    public double getDouble(@NotNull String key, double defaultValue) {
+        Entry entry = entryOf(key, AutoConfig.Type.DOUBLE);
+        return entry == null ? defaultValue : Double.longBitsToDouble(entry.bits);
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull String key, boolean defaultValue) {
+        Entry entry = entryOf(key, AutoConfig.Type.BOOLEAN);
+        return entry == null ? defaultValue : entry.bits != 0;
+    }
+
+    @Override
+    public boolean setInt(@NotNull String key, int value) {
+        return write(key, new Entry(AutoConfig.Type.INT, value, null));
+    }
+
+    @Override
+    public boolean setLong(@NotNull String key, long value) {
+        return write(key, new Entry(AutoConfig.Type.LONG, value, null));
+    }
+
+    @Override
+    public boolean setFloat(@NotNull String key, float value) {
+        return write(key, new Entry(AutoConfig.Type.FLOAT, Float.floatToRawIntBits(value), null));
+    }
+
+    @Override
+    public boolean setDouble(@NotNull String key, double value) {
+        return write(key, new Entry(AutoConfig.Type.DOUBLE, Double.doubleToRawLongBits(value), null));
+    }
+
+    @Override
+    public boolean setBoolean(@NotNull String key, boolean value) {
+        return write(key, new Entry(AutoConfig.Type.BOOLEAN, value ? 1L : 0L, null));
+    }
+
+    //all the values of the batch go to the same commit
+    @Override
+    public boolean setAll(@NotNull Map<String, Object> values, @NotNull Map<String, AutoConfig.Type> types) {
+        boolean res = true;
+        long seq;
+        synchronized (this) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                AutoConfig.Type type = types.get(entry.getKey());
+                Object value = entry.getValue();
+                res &= type != null && type.isTypeOf(value) && append(entry.getKey()
+                        , new Entry(type, ConfigBits.toBits(type, value), ConfigBits.stringOf(type, value)));
+            }
+            seq = appendedSeq;
+        }
+
+        res &= commit(seq);
+        compactIfNeeded();
+        return res;
+    }
+
+    public long getLogSize() {
+        return size;
+    }
+
+    public void flush() throws IOException {
+        synchronized (commitLock) {
+            writePending();
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (commitLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+
+            writePending();
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    private Entry entryOf(String key, AutoConfig.Type type) {
+        Entry entry = index.get(key);
+        return entry == null || entry.type != type ? null : entry;
+    }
+
+    private boolean write(String key, Entry entry) {
+        long seq;
+        synchronized (this) {
+            if (!append(key, entry)) {
+                return false;
+            }
+            seq = appendedSeq;
+        }
+
+        boolean res = commit(seq);
+        compactIfNeeded();
+        return res;
+    }
+
+    //the pending entries are kept in the same order as the log, the index is updated by the commit
+    private boolean append(String key, Entry entry) {
+        if (closed) {
+            ConfigLog.e("log accessor has been closed --> " + key);
+            return false;
+        }
+
+        Entry old = latestEntry(key);
+        if (old != null && old.type != entry.type) {
+            ConfigLog.e("log accessor : " + key + " is " + old.type + " but not " + entry.type);
+            return false;
+        }
+
+        pending = encode(pending, crc, key, entry);
+        pendingEntries.put(key, entry);
+        appendedSeq++;
+        return true;
+    }
+
+    //called with this, the latest entry of the key including the ones not committed yet
+    private Entry latestEntry(String key) {
+        Entry entry = pendingEntries.get(key);
+        if (entry == null && writingEntries != null) {
+            entry = writingEntries.get(key);
+        }
+
+        return entry != null ? entry : index.get(key);
+    }
+
+    //the one reaching here first writes the records of all the waiting writers
+    private boolean commit(long seq) {
+        synchronized (commitLock) {
+            if (durableSeq < seq) {
+                try {
+                    writePending();
+                    if (sync) {
+                        channel.force(false);
+                    }
+                } catch (IOException e) {
+                    ConfigLog.e("log accessor commit failed --> " + file, e);
+                    return false;
+                }
+            }
+
+            Map.Entry<Long, Long> lost = lostSeqs.floorEntry(seq);
+            return lost == null || lost.getValue() < seq;
+        }
+    }
+
+    //called with the commit lock
+    private void writePending() throws IOException {
+        ByteBuffer out;
+        Map<String, Entry> entries;
+        long fromSeq = writtenSeq + 1;
+        long seq;
+        synchronized (this) {
+            out = pending;
+            entries = pendingEntries;
+            pending = spare;
+            pendingEntries = new HashMap<>();
+            writingEntries = entries;
+            seq = appendedSeq;
+        }
+        writtenSeq = seq;
+
+        try {
+            out.flip();
+            long position = size;
+            while (out.hasRemaining()) {
+                position += channel.write(out, position);
+            }
+            size = position;
+            durableSeq = seq;
+            synchronized (this) {
+                index.putAll(entries);
+                writingEntries = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                writingEntries = null;
+            }
+            if (seq >= fromSeq) {
+                lostSeqs.put(fromSeq, seq);
+            }
+            //the part written could be followed by nothing valid, the next commit writes from the size again
+            try {
+                channel.truncate(size);
+            } catch (IOException ignored) {
+            }
+            throw e;
+        } finally {
+            out.clear();
+            spare = out;
+        }
+    }
+
+    private void compactIfNeeded() {
+        long curSize = size;
+        if (curSize < compactThreshold || curSize < compactedSize * 2) {
+            return;
+        }
+
+        synchronized (this) {
+            if (compacting || closed) {
+                return;
+            }
+            compacting = true;
+        }
+
+        Thread compactor = new Thread(this::compact, "AutoConfig-log-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    private void compact() {
+        try {
+            //the index holds the values written up to the size, the later ones are copied from the log
+            Map<String, Entry> live;
+            long mark;
+            synchronized (commitLock) {
+                live = new HashMap<>(index);
+                mark = size;
+            }
+
+            try (FileChannel out = FileChannel.open(compactFile.toPath(), StandardOpenOption.CREATE
+                    , StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                buffer.putInt(MAGIC).putInt(FORMAT);
+                CRC32 compactCrc = new CRC32();
+                for (Map.Entry<String, Entry> entry : live.entrySet()) {
+                    if (buffer.remaining() < recordSize(entry.getKey(), entry.getValue())) {
+                        drain(buffer, out);
+                    }
+                    buffer = encode(buffer, compactCrc, entry.getKey(), entry.getValue());
+                }
+                drain(buffer, out);
+
+                //the records appended while writing the live values are copied to the new log as they are
+                synchronized (commitLock) {
+                    if (closed) {
+                        return;
+                    }
+
+                    writePending();
+                    long position = mark;
+                    while (position < size) {
+                        position += channel.transferTo(position, size - position, out);
+                    }
+                    out.force(true);
+
+                    Files.move(compactFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE
+                            , StandardCopyOption.REPLACE_EXISTING);
+                    channel.close();
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    size = channel.size();
+                    compactedSize = size;
+                }
+            }
+        } catch (IOException e) {
+            ConfigLog.w("log accessor compaction failed --> " + file, e);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //replay the log, return the end of the last complete record
+    private long recover() throws IOException {
+        long fileSize = channel.size();
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        if (fileSize < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != FORMAT) {
+            throw new IOException("not a config log --> " + file);
+        }
+
+        long position = HEADER_SIZE;
+        CRC32 recoverCrc = new CRC32();
+        byte[] payload = new byte[256];
+        while (position + RECORD_HEADER_SIZE <= fileSize) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > fileSize) {
+                break;
+            }
+
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+
+            try {
+                in.readFully(payload, 0, length);
+            } catch (EOFException e) {
+                break;
+            }
+
+            recoverCrc.reset();
+            recoverCrc.update(payload, 0, length);
+            if ((int) recoverCrc.getValue() != checksum || !replay(ByteBuffer.wrap(payload, 0, length))) {
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        if (position < fileSize) {
+            ConfigLog.d("log accessor truncates the broken tail --> " + file + " : " + position);
+            channel.truncate(position);
+        }
+
+        return position;
+    }
+
+    private boolean replay(ByteBuffer payload) {
+        AutoConfig.Type type = ConfigBits.typeOf(payload.get());
+        int keyLength = payload.getInt();
+        if (type == null || keyLength < 0 || keyLength > payload.remaining()) {
+            return false;
+        }
+
+        String key = new String(payload.array(), payload.position(), keyLength, StandardCharsets.UTF_8);
+        payload.position(payload.position() + keyLength);
+        if (type != AutoConfig.Type.STRING) {
+            index.put(key, new Entry(type, payload.getLong(), null));
+            return true;
+        }
+
+        int stringLength = payload.getInt();
+        if (stringLength < 0 || stringLength > payload.remaining()) {
+            return false;
+        }
+
+        index.put(key, new Entry(type, 0, new String(payload.array(), payload.position(), stringLength
+                , StandardCharsets.UTF_8)));
+        return true;
+    }
+
+    private static ByteBuffer encode(ByteBuffer buffer, CRC32 crc, String key, Entry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] stringBytes = entry.string == null ? null : entry.string.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 4 + keyBytes.length + (stringBytes == null ? 8 : 4 + stringBytes.length);
+
+        if (buffer.remaining() < RECORD_HEADER_SIZE + length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2
+                    , buffer.position() + RECORD_HEADER_SIZE + length));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+
+        int start = buffer.position();
+        buffer.putInt(length).putInt(0);
+        buffer.put((byte) entry.type.getValue()).putInt(keyBytes.length).put(keyBytes);
+        if (stringBytes == null) {
+            buffer.putLong(entry.bits);
+        } else {
+            buffer.putInt(stringBytes.length).put(stringBytes);
+        }
+
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER_SIZE, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static int recordSize(String key, Entry entry) {
+        int keyLength = key.getBytes(StandardCharsets.UTF_8).length;
+        return RECORD_HEADER_SIZE + 1 + 4 + keyLength
+                + (entry.string == null ? 8 : 4 + entry.string.getBytes(StandardCharsets.UTF_8).length);
+    }
+}
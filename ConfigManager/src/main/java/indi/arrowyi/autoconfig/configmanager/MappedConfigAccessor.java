@@ -0,0 +1,442 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+//keeps the values in a memory mapped file, so they survive the restart.
+//The file is a header, a table of fixed width slots and an append only area for the keys and strings.
+//Every slot has two copies of the value, each one with a sequence and a checksum, a write always goes to the older copy,
+//so a crash in the middle of the writing leaves the latest copy untouched.
+//Opening the file only walks the slot table, and the values are mirrored in memory, so the reading never touches the file.
+//The replaced strings are not reclaimed, the string area grows when it is full.
+public final class MappedConfigAccessor implements ConfigAccessor, Closeable {
+
+    public static final int DEFAULT_SLOT_CAPACITY = 1024;
+    public static final int DEFAULT_STRING_CAPACITY = 64 * 1024;
+
+    private static final int MAGIC = 0x41434d46;
+    private static final int FORMAT = 1;
+
+    //header : magic, format, slot capacity, slot count, string capacity, string end
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_FORMAT = 4;
+    private static final int H_SLOT_CAPACITY = 8;
+    private static final int H_SLOT_COUNT = 12;
+    private static final int H_STRING_CAPACITY = 16;
+    private static final int H_STRING_END = 20;
+
+    //slot : offset of the key, type, copy 0 and copy 1 of the value
+    private static final int SLOT_SIZE = 64;
+    private static final int S_KEY_OFFSET = 0;
+    private static final int S_TYPE = 4;
+    private static final int S_COPY = 16;
+
+    //copy : sequence, bits of the value (or the offset of the string), checksum
+    private static final int COPY_SIZE = 24;
+    private static final int C_SEQ = 0;
+    private static final int C_BITS = 8;
+    private static final int C_CRC = 16;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean sync;
+    private MappedByteBuffer buffer;
+
+    private final int slotCapacity;
+    private final int stringBase;
+    private int slotCount;
+    private int stringCapacity;
+    private int stringEnd;
+
+    //a slot is published to the readers by the map, after its mirror has been set
+    private final Map<String, Integer> slotOfKey = new ConcurrentHashMap<>();
+    private final AutoConfig.Type[] types;
+    private final AtomicLongArray values;
+    private final AtomicReferenceArray<String> strings;
+    //only used by the writer
+    private final long[] seqs;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer crcBuffer = ByteBuffer.allocate(20);
+
+    public MappedConfigAccessor(File file) throws IOException {
+        this(file, DEFAULT_SLOT_CAPACITY, DEFAULT_STRING_CAPACITY, false);
+    }
+
+    //the capacities are only used when the file is created, sync forces every write to the storage device
+    public MappedConfigAccessor(File file, int slotCapacity, int stringCapacity, boolean sync) throws IOException {
+        if (slotCapacity < 1 || stringCapacity < 1) {
+            throw new IllegalArgumentException("capacity should be positive --> " + slotCapacity + " : " + stringCapacity);
+        }
+
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.sync = sync;
+
+        try {
+            if (channel.size() == 0) {
+                this.slotCapacity = slotCapacity;
+                this.stringBase = HEADER_SIZE + slotCapacity * SLOT_SIZE;
+                map(stringCapacity);
+                buffer.putInt(H_MAGIC, MAGIC);
+                buffer.putInt(H_FORMAT, FORMAT);
+                buffer.putInt(H_SLOT_CAPACITY, slotCapacity);
+                buffer.putInt(H_SLOT_COUNT, 0);
+                buffer.putInt(H_STRING_END, 0);
+                buffer.force();
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_FORMAT) != FORMAT) {
+                    throw new IOException("not a config file --> " + file);
+                }
+
+                this.slotCapacity = header.getInt(H_SLOT_CAPACITY);
+                this.stringBase = HEADER_SIZE + this.slotCapacity * SLOT_SIZE;
+                if (channel.size() < stringBase + (long) header.getInt(H_STRING_CAPACITY)) {
+                    throw new IOException("config file is truncated --> " + file);
+                }
+
+                map(header.getInt(H_STRING_CAPACITY));
+                slotCount = Math.min(header.getInt(H_SLOT_COUNT), this.slotCapacity);
+                stringEnd = header.getInt(H_STRING_END);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.file.close();
+            throw e;
+        }
+
+        this.types = new AutoConfig.Type[this.slotCapacity];
+        this.values = new AtomicLongArray(this.slotCapacity);
+        this.strings = new AtomicReferenceArray<>(this.slotCapacity);
+        this.seqs = new long[this.slotCapacity];
+        recover();
+    }
+
+    @Override
+    public boolean set(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object value) {
+        return type.isTypeOf(value)
+                && write(key, type, ConfigBits.toBits(type, value), ConfigBits.stringOf(type, value));
+    }
+
+    @Override
+    public Object get(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object defaultValue) {
+        int slot = slotOf(key, type);
+        if (slot < 0) {
+            return defaultValue;
+        }
+
+        return ConfigBits.fromBits(type, values.get(slot), strings.get(slot));
+    }
+
+    @Override
+    public int getInt(@NotNull String key, int defaultValue) {
+        int slot = slotOf(key, AutoConfig.Type.INT);
+        return slot < 0 ? defaultValue : (int) values.get(slot);
+    }
+
+    @Override
+    public long getLong(@NotNull String key, long defaultValue) {
+        int slot = slotOf(key, AutoConfig.Type.LONG);
+        return slot < 0 ? defaultValue : values.get(slot);
+    }
+
+    @Override
+    public float getFloat(@NotNull String key, float defaultValue) {
+        int slot = slotOf(key, AutoConfig.Type.FLOAT);
+        return slot < 0 ? defaultValue : Float.intBitsToFloat((int) values.get(slot));
+    }
+
+    @Override
+    public double getDouble(@NotNull String key, double defaultValue) {
+        int slot = slotOf(key, AutoConfig.Type.DOUBLE);
+        return slot < 0 ? defaultValue : Double.longBitsToDouble(values.get(slot));
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull String key, boolean defaultValue) {
+        int slot = slotOf(key, AutoConfig.Type.BOOLEAN);
+        return slot < 0 ? defaultValue : values.get(slot) != 0;
+    }
+
+    @Override
+    public boolean setInt(@NotNull String key, int value) {
+        return write(key, AutoConfig.Type.INT, value, null);
+    }
+
+    @Override
+    public boolean setLong(@NotNull String key, long value) {
+        return write(key, AutoConfig.Type.LONG, value, null);
+    }
+
+    @Override
+    public boolean setFloat(@NotNull String key, float value) {
+        return write(key, AutoConfig.Type.FLOAT, Float.floatToRawIntBits(value), null);
+    }
+
+    @Override
+    public boolean setDouble(@NotNull String key, double value) {
+        return write(key, AutoConfig.Type.DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    @Override
+    public boolean setBoolean(@NotNull String key, boolean value) {
+        return write(key, AutoConfig.Type.BOOLEAN, value ? 1L : 0L, null);
+    }
+
+    //the values of the batch are forced once at the end
+    @Override
+    public synchronized boolean setAll(@NotNull Map<String, Object> values, @NotNull Map<String, AutoConfig.Type> types) {
+        boolean res = true;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            AutoConfig.Type type = types.get(entry.getKey());
+            Object value = entry.getValue();
+            res &= type != null && type.isTypeOf(value)
+                    && doWrite(entry.getKey(), type, ConfigBits.toBits(type, value), ConfigBits.stringOf(type, value));
+        }
+
+        force();
+        return res;
+    }
+
+    public synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    //the values could still be read after closing, but could not be changed any more
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.force();
+        buffer = null;
+        channel.close();
+        file.close();
+    }
+
+    private int slotOf(String key, AutoConfig.Type type) {
+        Integer slot = slotOfKey.get(key);
+        return slot == null || types[slot] != type ? -1 : slot;
+    }
+
+    private synchronized boolean write(String key, AutoConfig.Type type, long bits, String string) {
+        boolean res = doWrite(key, type, bits, string);
+        force();
+        return res;
+    }
+
+    private boolean doWrite(String key, AutoConfig.Type type, long bits, String string) {
+        if (buffer == null) {
+            ConfigLog.e("mapped accessor has been closed --> " + key);
+            return false;
+        }
+
+        Integer slot = slotOfKey.get(key);
+        if (slot != null && types[slot] != type) {
+            ConfigLog.e("mapped accessor : " + key + " is " + types[slot] + " but not " + type);
+            return false;
+        }
+
+        try {
+            if (string != null) {
+                if (slot != null && string.equals(strings.get(slot))) {
+                    return true;
+                }
+
+                bits = append(string);
+            }
+
+            if (slot == null) {
+                return allocate(key, type, bits, string);
+            }
+
+            long seq = seqs[slot] + 1;
+            writeCopy(slot, seq, bits);
+            seqs[slot] = seq;
+            if (string != null) {
+                strings.set(slot, string);
+            }
+            values.set(slot, bits);
+            return true;
+        } catch (IOException e) {
+            ConfigLog.e("mapped accessor write failed --> " + key, e);
+            return false;
+        }
+    }
+
+    //the slot count in the header is the commit point of a new slot
+    private boolean allocate(String key, AutoConfig.Type type, long bits, String string) throws IOException {
+        if (slotCount >= slotCapacity) {
+            ConfigLog.e("mapped accessor has no free slot --> " + key);
+            return false;
+        }
+
+        int keyOffset = append(key);
+        int slot = slotCount;
+        int base = slotBase(slot);
+        buffer.putInt(base + S_KEY_OFFSET, keyOffset);
+        buffer.put(base + S_TYPE, (byte) type.getValue());
+        buffer.putLong(copyBase(slot, 0) + C_SEQ, 0);
+        writeCopy(slot, 1, bits);
+        buffer.putInt(H_SLOT_COUNT, ++slotCount);
+
+        publish(slot, key, type, 1, bits, string);
+        return true;
+    }
+
+    private void publish(int slot, String key, AutoConfig.Type type, long seq, long bits, String string) {
+        types[slot] = type;
+        seqs[slot] = seq;
+        values.set(slot, bits);
+        strings.set(slot, string);
+        slotOfKey.put(key, slot);
+    }
+
+    //the copy is marked invalid first, and becomes valid again when the sequence is written at last
+    private void writeCopy(int slot, long seq, long bits) {
+        int base = copyBase(slot, (int) (seq & 1));
+        buffer.putLong(base + C_SEQ, 0);
+        buffer.putLong(base + C_BITS, bits);
+        buffer.putInt(base + C_CRC, checksum(slot, seq, bits));
+        buffer.putLong(base + C_SEQ, seq);
+    }
+
+    private void recover() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slotBase(slot);
+            AutoConfig.Type type = ConfigBits.typeOf(buffer.get(base + S_TYPE));
+            String key = read(buffer.getInt(base + S_KEY_OFFSET));
+
+            long seq = 0;
+            long bits = 0;
+            for (int copy = 0; copy < 2; copy++) {
+                int copyBase = copyBase(slot, copy);
+                long copySeq = buffer.getLong(copyBase + C_SEQ);
+                long copyBits = buffer.getLong(copyBase + C_BITS);
+                if (copySeq > seq && buffer.getInt(copyBase + C_CRC) == checksum(slot, copySeq, copyBits)) {
+                    seq = copySeq;
+                    bits = copyBits;
+                }
+            }
+
+            String string = null;
+            if (type == AutoConfig.Type.STRING && seq > 0) {
+                string = read((int) bits);
+            }
+
+            if (type == null || key == null || seq == 0 || (type == AutoConfig.Type.STRING && string == null)) {
+                ConfigLog.d("mapped accessor slot is broken, dropped --> " + slot + " : " + key);
+                continue;
+            }
+
+            publish(slot, key, type, seq, bits, string);
+        }
+    }
+
+    private int append(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + bytes.length;
+        if (stringEnd + (long) size > stringCapacity) {
+            grow(size);
+        }
+
+        int offset = stringEnd;
+        int position = stringBase + offset;
+        buffer.putInt(position, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(position + 4 + i, bytes[i]);
+        }
+
+        stringEnd += size;
+        buffer.putInt(H_STRING_END, stringEnd);
+        return offset;
+    }
+
+    private String read(int offset) {
+        if (offset < 0 || offset + 4L > stringEnd) {
+            return null;
+        }
+
+        int length = buffer.getInt(stringBase + offset);
+        if (length < 0 || offset + 4L + length > stringEnd) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(stringBase + offset + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void grow(int size) throws IOException {
+        long capacity = Math.max(stringCapacity * 2L, stringEnd + (long) size);
+        if (stringBase + capacity > Integer.MAX_VALUE) {
+            throw new IOException("mapped accessor string area is full");
+        }
+
+        buffer.force();
+        map((int) capacity);
+    }
+
+    private void map(int capacity) throws IOException {
+        file.setLength(stringBase + (long) capacity);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, stringBase + (long) capacity);
+        stringCapacity = capacity;
+        buffer.putInt(H_STRING_CAPACITY, capacity);
+    }
+
+    private void force() {
+        if (sync && buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private int checksum(int slot, long seq, long bits) {
+        crcBuffer.clear();
+        crcBuffer.putInt(slot).putLong(seq).putLong(bits).flip();
+        crc.reset();
+        crc.update(crcBuffer);
+        return (int) crc.getValue();
+    }
+
+    private int slotBase(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private int copyBase(int slot, int copy) {
+        return slotBase(slot) + S_COPY + copy * COPY_SIZE;
+    }
+}
@@ -0,0 +1,238 @@
+
+/*
+ * Copyright (c) 2023.  Arrowyi. All rights reserved
+ * email : arrowyi@gmail.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package indi.arrowyi.autoconfig.configmanager;
+
+import javax.validation.constraints.NotNull;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//reads the values from a properties, flat YAML or JSON file and reloads it when the file is changed on the disk.
+//The new content is diffed against the last parsed one, and only the changed keys are reported to
+//AutoConfig.onValueChanged, so their listeners are notified. The parsed content is swapped in one go, the readers
+//never wait for the reloading.
+//The values set by setXXX are kept in memory, and are dropped when the key is changed in the file.
+public final class WatchingConfigAccessor implements ConfigAccessor, Closeable {
+
+    //the editors usually write a file by several events, they are merged in this window
+    private static final long SETTLE_MILLIS = 50;
+
+    private static final class Content {
+        final Map<String, String> raw;
+        final Map<String, Object> converted = new ConcurrentHashMap<>();
+
+        Content(Map<String, String> raw) {
+            this.raw = raw;
+        }
+    }
+
+    private final Path path;
+    private final FileDefaultValueLoader.Format format;
+    private final WatchService watchService;
+    private final Map<String, Object> overrides = new ConcurrentHashMap<>();
+    private volatile Content content;
+    private volatile boolean closed = false;
+
+    public WatchingConfigAccessor(File file) throws IOException {
+        this(file, FileDefaultValueLoader.formatOf(file));
+    }
+
+    public WatchingConfigAccessor(File file, FileDefaultValueLoader.Format format) throws IOException {
+        this.path = file.toPath().toAbsolutePath();
+        this.format = format;
+        this.content = new Content(read());
+
+        this.watchService = path.getFileSystem().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE
+                , StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(this::watch, "AutoConfig-file-watcher-" + path.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public boolean set(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object value) {
+        if (!type.isTypeOf(value)) {
+            return false;
+        }
+
+        overrides.put(key, value);
+        return true;
+    }
+
+    @Override
+    public Object get(@NotNull String key, @NotNull AutoConfig.Type type, @NotNull Object defaultValue) {
+        Object value = lookup(key, type);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public int getInt(@NotNull String key, int defaultValue) {
+        Object value = lookup(key, AutoConfig.Type.INT);
+        return value != null ? (Integer) value : defaultValue;
+    }
+
+    @Override
+    public long getLong(@NotNull String key, long defaultValue) {
+        Object value = lookup(key, AutoConfig.Type.LONG);
+        return value != null ? (Long) value : defaultValue;
+    }
+
+    @Override
+    public float getFloat(@NotNull String key, float defaultValue) {
+        Object value = lookup(key, AutoConfig.Type.FLOAT);
+        return value != null ? (Float) value : defaultValue;
+    }
+
+    @Override
+    public double getDouble(@NotNull String key, double defaultValue) {
+        Object value = lookup(key, AutoConfig.Type.DOUBLE);
+        return value != null ? (Double) value : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull String key, boolean defaultValue) {
+        Object value = lookup(key, AutoConfig.Type.BOOLEAN);
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    //parse the file again, return the changed keys
+    public synchronized List<String> reload() {
+        Map<String, String> raw;
+        try {
+            raw = read();
+        } catch (IOException e) {
+            ConfigLog.w("reload failed, the last content is kept --> " + path, e);
+            return Collections.emptyList();
+        }
+
+        Map<String, String> old = content.raw;
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            if (!entry.getValue().equals(old.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : old.keySet()) {
+            if (!raw.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return changed;
+        }
+
+        content = new Content(raw);
+        for (String key : changed) {
+            overrides.remove(key);
+            AutoConfig.onValueChanged(key);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+    }
+
+    private Object lookup(String key, AutoConfig.Type type) {
+        Object value = overrides.get(key);
+        if (type.isTypeOf(value)) {
+            return value;
+        }
+
+        Content cur = content;
+        value = cur.converted.get(key);
+        if (type.isTypeOf(value)) {
+            return value;
+        }
+
+        String text = cur.raw.get(key);
+        if (text == null) {
+            return null;
+        }
+
+        value = FileDefaultValueLoader.convert(text, type);
+        if (value == null) {
+            //it is on the reading path, the message is built only when the debug is enabled
+            ConfigLog.d(() -> "value of " + key + " is not " + type + ", the default is used --> " + text);
+            return null;
+        }
+
+        cur.converted.put(key, value);
+        return value;
+    }
+
+    private Map<String, String> read() throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path)
+                , StandardCharsets.UTF_8), 64 * 1024)) {
+            return FileDefaultValueLoader.parse(reader, format);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                boolean hit = isHit(key);
+                //wait for the writing to settle, and merge the events coming in the meantime
+                while (hit && (key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isHit(key);
+                }
+
+                if (hit && !closed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //closed
+        }
+    }
+
+    private boolean isHit(WatchKey key) {
+        boolean hit = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (path.getFileName().equals(event.context())) {
+                hit = true;
+            }
+        }
+
+        key.reset();
+        return hit;
+    }
+}
@@ -5,6 +5,7 @@ import indi.arrowyi.autoconfig.*;
 import indi.arrowyi.autoconfig.configmanager.AutoConfig;
 import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
 import indi.arrowyi.autoconfig.configmanager.DefaultValueLoader;
+import indi.arrowyi.autoconfig.configmanager.autoconfigtestConfigs;
 
 public class AutoConfigTest {
     @AutoRegisterInt(defaultValue =5)
@@ -44,6 +45,9 @@ public class AutoConfigTest {
         AutoConfig.setString(TEST_STRING, "test");
         System.out.println(AutoConfig.getString(TEST_STRING));
 
+        autoconfigtestConfigs.TEST_LONG.set(100L);
+        System.out.println(autoconfigtestConfigs.TEST_LONG.get());
+
         AutoConfig.registerAccessor(AutoConfig.DEFAULT_ACCESSOR, new ConfigAccessor() {
             @Override
             public boolean set(String key, AutoConfig.Type type, Object value) {
@@ -0,0 +1,59 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+import indi.arrowyi.autoconfig.configmanager.ConfigRuntimeException;
+import indi.arrowyi.autoconfig.configmanager.IntConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigHandleTest {
+    private static final String ACCESSOR = "config_handle_test";
+    private static final String LOADER = "config_handle_test";
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        AutoConfig.registerAccessor(ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                return true;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                return defaultValue;
+            }
+        });
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> "s");
+    }
+
+    //a handle of an undefined key must fail with its key, not with a NPE from the steward
+    @Test
+    public void undefinedKeyFailsWithTheKey() {
+        String key = "config_handle_test_undefined";
+        IntConfig handle = AutoConfig.intConfig(key);
+        assertFalse(handle.isDefined());
+
+        ConfigRuntimeException get = assertThrows(ConfigRuntimeException.class, handle::get);
+        assertTrue(get.getMessage().contains(key));
+        ConfigRuntimeException set = assertThrows(ConfigRuntimeException.class, () -> handle.set(1));
+        assertTrue(set.getMessage().contains(key));
+    }
+
+    @Test
+    public void mistypedKeyFailsWithTheKey() {
+        String key = "config_handle_test_string";
+        AutoConfig.registerString(key, ACCESSOR, LOADER);
+        assertEquals("s", AutoConfig.stringConfig(key).get());
+
+        IntConfig handle = AutoConfig.intConfig(key);
+        ConfigRuntimeException e = assertThrows(ConfigRuntimeException.class, handle::get);
+        assertTrue(e.getMessage().contains(key));
+    }
+}
@@ -0,0 +1,50 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DefaultAccessorTest {
+    //the default accessor generated for this module
+    private static final String ACCESSOR = "autoconfigtest520DefaultAccessor";
+    private static final String LOADER = "default_accessor_test";
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        AutoConfig.loadConfigRegister();
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> type == AutoConfig.Type.INT ? (Object) 1 : "a");
+    }
+
+    //the keys registered against the generated accessor at runtime have no ordinal, they are still stored
+    @Test
+    public void runtimeKeysAreStored() {
+        String intKey = "default_accessor_test_int";
+        String stringKey = "default_accessor_test_string";
+        AutoConfig.registerInt(intKey, ACCESSOR, LOADER);
+        AutoConfig.registerString(stringKey, ACCESSOR, LOADER);
+        assertEquals(1, AutoConfig.getInt(intKey));
+        assertEquals("a", AutoConfig.getString(stringKey));
+
+        assertTrue(AutoConfig.setInt(intKey, 2));
+        assertTrue(AutoConfig.setString(stringKey, "b"));
+        assertEquals(2, AutoConfig.getInt(intKey));
+        assertEquals(2, AutoConfig.intConfig(intKey).get());
+        assertEquals("b", AutoConfig.getString(stringKey));
+
+        assertTrue(AutoConfig.batch().setInt(intKey, 3).commit());
+        assertEquals(3, AutoConfig.getInt(intKey));
+    }
+
+    //the keys known at compile time keep their slots
+    @Test
+    public void compiledKeysAreStored() {
+        long value = AutoConfig.getLong("test_long");
+        assertTrue(AutoConfig.setLong("test_long", value + 1));
+        assertEquals(value + 1, AutoConfig.getLong("test_long"));
+        assertTrue(AutoConfig.setLong("test_long", value));
+    }
+}
@@ -0,0 +1,62 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.FileDefaultValueLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class FileDefaultValueLoaderTest {
+
+    private static FileDefaultValueLoader yaml(String text) throws IOException {
+        return new FileDefaultValueLoader(new StringReader(text), FileDefaultValueLoader.Format.YAML, null);
+    }
+
+    //the body of a block scalar is skipped with its header, the keys after it are still loaded
+    @Test
+    public void blockScalarIsSkipped() throws IOException {
+        FileDefaultValueLoader loader = yaml("server:\n"
+                + "  port: 8080\n"
+                + "  desc: |\n"
+                + "    some text\n"
+                + "\n"
+                + "    more: text\n"
+                + "  folded: >\n"
+                + "    folded text\n"
+                + "  host: localhost\n"
+                + "name: test\n");
+
+        assertEquals(8080, loader.getDefaultValue("server.port", AutoConfig.Type.INT));
+        assertEquals("localhost", loader.getDefaultValue("server.host", AutoConfig.Type.STRING));
+        assertEquals("test", loader.getDefaultValue("name", AutoConfig.Type.STRING));
+        assertFalse(loader.contains("server.desc"));
+        assertFalse(loader.contains("server.more"));
+        assertFalse(loader.contains("server.folded"));
+        assertEquals(3, loader.size());
+    }
+
+    //the mappings in a list item must not be read as the keys of the parent
+    @Test
+    public void listItemsAreSkipped() throws IOException {
+        FileDefaultValueLoader loader = yaml("list:\n"
+                + "  - name: a\n"
+                + "    value: b\n"
+                + "  - name: c\n"
+                + "    nested:\n"
+                + "      value: d\n"
+                + "flat:\n"
+                + "- x\n"
+                + "- y\n"
+                + "after: 1\n");
+
+        assertFalse(loader.contains("list.name"));
+        assertFalse(loader.contains("list.value"));
+        assertFalse(loader.contains("list.nested.value"));
+        assertEquals(1, loader.getDefaultValue("after", AutoConfig.Type.INT));
+        assertEquals(1, loader.size());
+    }
+}
@@ -0,0 +1,114 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.LogConfigAccessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogConfigAccessorTest {
+
+    @TempDir
+    File dir;
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+    }
+
+    //a record torn by a crash at the end of the log is dropped on the reopening, the ones before it are kept
+    @Test
+    public void reopenAfterTornWrite() throws Exception {
+        File file = new File(dir, "torn.log");
+        try (LogConfigAccessor log = new LogConfigAccessor(file)) {
+            assertTrue(log.setInt("int", 1));
+            assertTrue(log.setInt("int", 2));
+            assertTrue(log.set("string", AutoConfig.Type.STRING, "value"));
+        }
+
+        long size = file.length();
+        //a record header claiming 40 bytes of payload, followed by only 2 of them
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(size);
+            raf.write(new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 5, 6});
+        }
+
+        try (LogConfigAccessor log = new LogConfigAccessor(file)) {
+            assertEquals(size, file.length());
+            assertEquals(2, log.getInt("int", -1));
+            assertEquals("value", log.get("string", AutoConfig.Type.STRING, ""));
+            assertTrue(log.setInt("int", 3));
+        }
+
+        try (LogConfigAccessor log = new LogConfigAccessor(file)) {
+            assertEquals(3, log.getInt("int", -1));
+        }
+    }
+
+    //the writer of a commit which could not be written gets false, and nobody sees its value
+    @Test
+    public void failedCommitIsNotPublished() throws Exception {
+        File file = new File(dir, "failed.log");
+        LogConfigAccessor log = new LogConfigAccessor(file, false, Long.MAX_VALUE);
+        assertTrue(log.setInt("int", 1));
+
+        //the writes fail as the channel under the accessor is gone
+        Field channel = LogConfigAccessor.class.getDeclaredField("channel");
+        channel.setAccessible(true);
+        ((FileChannel) channel.get(log)).close();
+
+        assertFalse(log.setInt("int", 2));
+        assertFalse(log.setInt("new", 1));
+        assertEquals(1, log.getInt("int", -1));
+        assertEquals(-1, log.getInt("new", -1));
+
+        try (LogConfigAccessor reopened = new LogConfigAccessor(file)) {
+            assertEquals(1, reopened.getInt("int", -1));
+            assertEquals(-1, reopened.getInt("new", -1));
+        }
+    }
+
+    //the log of the overwritten values shrinks to the live ones, and the reopened log holds the latest values
+    @Test
+    public void compactionKeepsTheLatestValues() throws Exception {
+        File file = new File(dir, "compact.log");
+        int keys = 10;
+        int rounds = 500;
+        try (LogConfigAccessor log = new LogConfigAccessor(file, false, 4 * 1024)) {
+            long peak = 0;
+            for (int round = 0; round < rounds; round++) {
+                for (int key = 0; key < keys; key++) {
+                    assertTrue(log.setInt("key" + key, round));
+                }
+                peak = Math.max(peak, log.getLogSize());
+            }
+
+            //the compaction runs in the background
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (log.getLogSize() >= 8 * 1024 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(log.getLogSize() < 8 * 1024, "log size " + log.getLogSize());
+            assertTrue(log.getLogSize() < peak);
+            for (int key = 0; key < keys; key++) {
+                assertEquals(rounds - 1, log.getInt("key" + key, -1));
+            }
+        }
+
+        try (LogConfigAccessor log = new LogConfigAccessor(file)) {
+            for (int key = 0; key < keys; key++) {
+                assertEquals(rounds - 1, log.getInt("key" + key, -1));
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.MappedConfigAccessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedConfigAccessorTest {
+    //the layout of the first slot : a 64 bytes header, then the slot with its copies from the byte 16 of it,
+    //every copy is the sequence, the bits and the checksum in 24 bytes
+    private static final int FIRST_SLOT = 64;
+    private static final int COPY_BASE = FIRST_SLOT + 16;
+    private static final int COPY_SIZE = 24;
+
+    @TempDir
+    File dir;
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+    }
+
+    @Test
+    public void valuesSurviveTheReopening() throws Exception {
+        File file = new File(dir, "values.cfg");
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertTrue(accessor.setInt("int", 1));
+            assertTrue(accessor.setDouble("double", 2.5));
+            assertTrue(accessor.set("string", AutoConfig.Type.STRING, "first"));
+            assertTrue(accessor.set("string", AutoConfig.Type.STRING, "second"));
+        }
+
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertEquals(1, accessor.getInt("int", -1));
+            assertEquals(2.5, accessor.getDouble("double", -1));
+            assertEquals("second", accessor.get("string", AutoConfig.Type.STRING, ""));
+        }
+    }
+
+    //a write torn after its bits but before its checksum falls back to the previous copy
+    @Test
+    public void tornWriteFallsBackToThePreviousCopy() throws Exception {
+        File file = new File(dir, "torn.cfg");
+        writeTwice(file);
+
+        //the third write goes to the copy 1, it has the new sequence and bits but the old checksum
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(COPY_BASE + COPY_SIZE);
+            raf.writeLong(3);
+            raf.writeLong(99);
+        }
+
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertEquals(2, accessor.getInt("int", -1));
+            //the next write goes over the broken copy again and is recovered
+            assertTrue(accessor.setInt("int", 3));
+        }
+
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertEquals(3, accessor.getInt("int", -1));
+        }
+    }
+
+    //a write torn before its sequence is published leaves the copy marked invalid
+    @Test
+    public void unpublishedWriteFallsBackToThePreviousCopy() throws Exception {
+        File file = new File(dir, "unpublished.cfg");
+        writeTwice(file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(COPY_BASE + COPY_SIZE);
+            raf.writeLong(0);
+            raf.writeLong(99);
+        }
+
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertEquals(2, accessor.getInt("int", -1));
+        }
+    }
+
+    //the sequence 1 goes to the copy 1 and the sequence 2 to the copy 0
+    private static void writeTwice(File file) throws Exception {
+        try (MappedConfigAccessor accessor = new MappedConfigAccessor(file)) {
+            assertTrue(accessor.setInt("int", 1));
+            assertTrue(accessor.setInt("int", 2));
+        }
+    }
+}
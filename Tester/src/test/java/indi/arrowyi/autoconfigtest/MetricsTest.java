@@ -0,0 +1,118 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+import indi.arrowyi.autoconfig.configmanager.JmxConfigMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+    private static final String ACCESSOR = "metrics_test";
+    private static final String LOADER = "metrics_test";
+    private static final String FAILING_ACCESSOR = "metrics_test_failing";
+    private static final long READS = 10;
+
+    private static final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        AutoConfig.registerAccessor(ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                store.put(key, value);
+                return true;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                Object value = store.get(key);
+                return value == null ? defaultValue : value;
+            }
+        });
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> type == AutoConfig.Type.INT ? (Object) 5 : "s");
+        AutoConfig.registerAccessor(FAILING_ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                return false;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                return defaultValue;
+            }
+        });
+    }
+
+    @AfterEach
+    void unsetMetrics() {
+        AutoConfig.setMetrics(null);
+    }
+
+    //the reads served by the resolved value cache never reach the accessor, they must be counted all the same
+    @Test
+    public void cachedReadsAreCounted() {
+        String intKey = "metrics_test_cached_int";
+        String stringKey = "metrics_test_cached_string";
+        AutoConfig.registerInt(intKey, ACCESSOR, LOADER);
+        AutoConfig.registerString(stringKey, ACCESSOR, LOADER);
+        assertTrue(AutoConfig.enableCache(intKey));
+        assertTrue(AutoConfig.enableCache(stringKey));
+
+        JmxConfigMetrics metrics = new JmxConfigMetrics(1);
+        AutoConfig.setMetrics(metrics);
+        for (int i = 0; i < READS; i++) {
+            AutoConfig.getInt(intKey);
+            AutoConfig.getString(stringKey);
+        }
+
+        assertEquals(READS, metrics.getKeyReadCounts().get(intKey));
+        assertEquals(READS, metrics.getKeyReadCounts().get(stringKey));
+    }
+
+    //the near cache hits are counted once, not again by the resolved value cache or the accessor behind it
+    @Test
+    public void nearCachedReadsAreCounted() {
+        String plainKey = "metrics_test_near_int";
+        String cachedKey = "metrics_test_near_cached_int";
+        AutoConfig.registerInt(plainKey, ACCESSOR, LOADER);
+        AutoConfig.registerInt(cachedKey, ACCESSOR, LOADER);
+        assertTrue(AutoConfig.enableNearCache(plainKey));
+        assertTrue(AutoConfig.enableCache(cachedKey));
+        assertTrue(AutoConfig.enableNearCache(cachedKey));
+
+        JmxConfigMetrics metrics = new JmxConfigMetrics(1);
+        AutoConfig.setMetrics(metrics);
+        for (int i = 0; i < READS; i++) {
+            AutoConfig.getInt(plainKey);
+            AutoConfig.getInt(cachedKey);
+        }
+
+        assertEquals(READS, metrics.getKeyReadCounts().get(plainKey));
+        assertEquals(READS, metrics.getKeyReadCounts().get(cachedKey));
+    }
+
+    //a batch the accessor failed to write is not counted as the writes
+    @Test
+    public void failedBatchWritesAreNotCounted() {
+        String okKey = "metrics_test_batch_ok";
+        String failedKey = "metrics_test_batch_failed";
+        AutoConfig.registerInt(okKey, ACCESSOR, LOADER);
+        AutoConfig.registerInt(failedKey, FAILING_ACCESSOR, LOADER);
+
+        JmxConfigMetrics metrics = new JmxConfigMetrics(1);
+        AutoConfig.setMetrics(metrics);
+        assertFalse(AutoConfig.batch().setInt(okKey, 1).setInt(failedKey, 2).commit());
+
+        assertEquals(1L, metrics.getKeyWriteCounts().get(okKey));
+        assertEquals(0L, metrics.getKeyWriteCounts().getOrDefault(failedKey, 0L));
+    }
+}
@@ -0,0 +1,155 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NearCacheTest {
+    private static final String ACCESSOR = "near_cache_test";
+    private static final String LOADER = "near_cache_test";
+    private static final int DEFAULT = -1;
+
+    private static final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        //the slow write widens the window between the write and the version bump
+        AutoConfig.registerAccessor(ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                Thread.yield();
+                store.put(key, value);
+                return true;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                Object value = store.get(key);
+                return value == null ? defaultValue : value;
+            }
+        });
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> DEFAULT);
+    }
+
+    //every reader must see the default once the reset returns, a reader filling its slot in the middle of
+    //the reset must not keep the old value with the new version
+    @Test
+    public void resetIsSeenByTheNearCachedReaders() throws Exception {
+        String key = "near_cache_reset";
+        AutoConfig.registerInt(key, ACCESSOR, LOADER);
+        assertTrue(AutoConfig.enableNearCache(key));
+
+        int readers = 4;
+        int rounds = 500;
+        AtomicInteger resetRound = new AtomicInteger(0);
+        AtomicInteger checked = new AtomicInteger(0);
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(pool.submit(() -> {
+                int stale = 0;
+                int seen = 0;
+                while (seen < rounds) {
+                    int round = resetRound.get();
+                    if (round == seen) {
+                        AutoConfig.getInt(key);
+                        continue;
+                    }
+
+                    if (AutoConfig.getInt(key) != DEFAULT) {
+                        stale++;
+                    }
+                    seen = round;
+                    checked.incrementAndGet();
+                }
+                return stale;
+            }));
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            assertTrue(AutoConfig.setInt(key, round));
+            assertTrue(AutoConfig.reset(key));
+            resetRound.set(round);
+            while (checked.get() < readers * round) {
+                Thread.yield();
+            }
+        }
+
+        int stale = 0;
+        for (Future<Integer> result : results) {
+            stale += result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(0, stale);
+        assertEquals(DEFAULT, AutoConfig.getInt(key));
+    }
+
+    //with the resolved value cache on too, a reader between the version bump and the cache update of a write
+    //must not fill its slot with the old cached value and the new version
+    @Test
+    public void writeIsSeenByTheNearCachedReaders() throws Exception {
+        String key = "near_cache_write";
+        AutoConfig.registerInt(key, ACCESSOR, LOADER);
+        assertTrue(AutoConfig.enableCache(key));
+        assertTrue(AutoConfig.enableNearCache(key));
+
+        int readers = 4;
+        int rounds = 500;
+        AtomicInteger writeRound = new AtomicInteger(0);
+        AtomicInteger checked = new AtomicInteger(0);
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(pool.submit(() -> {
+                int stale = 0;
+                int seen = 0;
+                while (seen < rounds) {
+                    int round = writeRound.get();
+                    if (round == seen) {
+                        AutoConfig.getInt(key);
+                        continue;
+                    }
+
+                    if (AutoConfig.getInt(key) != round) {
+                        stale++;
+                    }
+                    seen = round;
+                    checked.incrementAndGet();
+                }
+                return stale;
+            }));
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            assertTrue(AutoConfig.setInt(key, round));
+            writeRound.set(round);
+            while (checked.get() < readers * round) {
+                Thread.yield();
+            }
+        }
+
+        int stale = 0;
+        for (Future<Integer> result : results) {
+            stale += result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(0, stale);
+        assertEquals(rounds, AutoConfig.getInt(key));
+    }
+}
@@ -0,0 +1,205 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+import indi.arrowyi.autoconfig.configmanager.ConfigNotifyStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class NotifierTest {
+    private static final String ACCESSOR = "notifier_test";
+    private static final String LOADER = "notifier_test";
+    //the notifier has a lane per processor, and a key always goes to the same lane
+    private static final int LANES = Runtime.getRuntime().availableProcessors();
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        AutoConfig.registerAccessor(ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                return true;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                return defaultValue;
+            }
+        });
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> 0);
+    }
+
+    @AfterEach
+    void restore() {
+        AutoConfig.setNotifyQueueCapacity(AutoConfig.DEFAULT_NOTIFY_QUEUE_CAPACITY);
+        AutoConfig.setNotifyOverflowPolicy(AutoConfig.OverflowPolicy.COALESCE);
+    }
+
+    private static int laneOf(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % LANES;
+    }
+
+    //a key of the given prefix going to another lane than the other key
+    private static String keyOnOtherLane(String prefix, String other) {
+        for (int i = 0; ; i++) {
+            String key = prefix + i;
+            if (laneOf(key) != laneOf(other)) {
+                return key;
+            }
+        }
+    }
+
+    private static void await(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counter.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    //the listeners of two full lanes set the keys of each other, neither worker may wait for the other
+    @Test
+    public void crossLaneListenersDoNotBlock() throws Exception {
+        assumeTrue(LANES > 1);
+        String a = "notifier_cross_a";
+        String b = keyOnOtherLane("notifier_cross_b", a);
+        AutoConfig.registerInt(a, ACCESSOR, LOADER);
+        AutoConfig.registerInt(b, ACCESSOR, LOADER);
+        AutoConfig.setNotifyOverflowPolicy(AutoConfig.OverflowPolicy.BLOCK);
+        AutoConfig.setNotifyQueueCapacity(LANES);
+
+        int budget = 200;
+        AtomicInteger sets = new AtomicInteger(0);
+        AtomicInteger delivered = new AtomicInteger(0);
+        AutoConfig.addChangedListener(a, (key, value) -> {
+            for (int i = 0; i < 3 && sets.incrementAndGet() <= budget; i++) {
+                AutoConfig.setInt(b, i);
+            }
+            delivered.incrementAndGet();
+        });
+        AutoConfig.addChangedListener(b, (key, value) -> {
+            for (int i = 0; i < 3 && sets.incrementAndGet() <= budget; i++) {
+                AutoConfig.setInt(a, i);
+            }
+            delivered.incrementAndGet();
+        });
+
+        assertTrue(AutoConfig.setInt(a, 1));
+        assertTrue(AutoConfig.setInt(b, 1));
+
+        await(delivered, budget + 2);
+        assertEquals(budget + 2, delivered.get());
+    }
+
+    private static final int CHANGES = 50;
+
+    //the lane has room for one change, the first one is held by the listener until all the others are offered
+    private static List<Object> offerWhileHeld(String key, AutoConfig.OverflowPolicy policy) throws Exception {
+        AutoConfig.registerInt(key, ACCESSOR, LOADER);
+        AutoConfig.setNotifyOverflowPolicy(policy);
+        AutoConfig.setNotifyQueueCapacity(LANES);
+
+        List<Object> received = new CopyOnWriteArrayList<>();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AutoConfig.addChangedListener(key, (k, value) -> {
+            if (received.isEmpty()) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(value);
+        });
+
+        assertTrue(AutoConfig.setInt(key, 1));
+        assertTrue(held.await(10, TimeUnit.SECONDS));
+        for (int i = 2; i <= CHANGES; i++) {
+            assertTrue(AutoConfig.setInt(key, i));
+        }
+        release.countDown();
+        return received;
+    }
+
+    private static void awaitSize(List<Object> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    //the setter waits for the room, every change is delivered in order
+    @Test
+    public void blockDeliversEveryChange() throws Exception {
+        String key = "notifier_block";
+        AutoConfig.registerInt(key, ACCESSOR, LOADER);
+        AutoConfig.setNotifyOverflowPolicy(AutoConfig.OverflowPolicy.BLOCK);
+        AutoConfig.setNotifyQueueCapacity(LANES);
+
+        List<Object> received = new CopyOnWriteArrayList<>();
+        AutoConfig.addChangedListener(key, (k, value) -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(value);
+        });
+
+        ConfigNotifyStats before = AutoConfig.getNotifyStats();
+        for (int i = 1; i <= CHANGES; i++) {
+            assertTrue(AutoConfig.setInt(key, i));
+        }
+
+        awaitSize(received, CHANGES);
+        assertEquals(CHANGES, received.size());
+        for (int i = 1; i <= CHANGES; i++) {
+            assertEquals(i, received.get(i - 1));
+        }
+        assertEquals(before.getDroppedCount(), AutoConfig.getNotifyStats().getDroppedCount());
+    }
+
+    //the queued change takes the latest value, so the listener sees the first and the last one
+    @Test
+    public void coalesceKeepsTheLatestValue() throws Exception {
+        ConfigNotifyStats before = AutoConfig.getNotifyStats();
+        List<Object> received = offerWhileHeld("notifier_coalesce", AutoConfig.OverflowPolicy.COALESCE);
+
+        awaitSize(received, 2);
+        Thread.sleep(50);
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0));
+        assertEquals(CHANGES, received.get(1));
+        ConfigNotifyStats after = AutoConfig.getNotifyStats();
+        assertEquals(CHANGES - 2, after.getCoalescedCount() - before.getCoalescedCount());
+        assertEquals(before.getDroppedCount(), after.getDroppedCount());
+    }
+
+    //the queued change is dropped for the new one, and counted
+    @Test
+    public void dropOldestKeepsTheNewestChange() throws Exception {
+        ConfigNotifyStats before = AutoConfig.getNotifyStats();
+        List<Object> received = offerWhileHeld("notifier_drop_oldest", AutoConfig.OverflowPolicy.DROP_OLDEST);
+
+        awaitSize(received, 2);
+        Thread.sleep(50);
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0));
+        assertEquals(CHANGES, received.get(1));
+        ConfigNotifyStats after = AutoConfig.getNotifyStats();
+        assertEquals(CHANGES - 2, after.getDroppedCount() - before.getDroppedCount());
+        assertEquals(before.getCoalescedCount(), after.getCoalescedCount());
+    }
+}
@@ -0,0 +1,57 @@
+package indi.arrowyi.autoconfigtest;
+
+import indi.arrowyi.autoconfig.configmanager.AutoConfig;
+import indi.arrowyi.autoconfig.configmanager.ConfigAccessor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitiveGetterTest {
+    private static final String ACCESSOR = "primitive_getter_test";
+    private static final String LOADER = "primitive_getter_test";
+
+    @BeforeAll
+    static void init() {
+        AutoConfig.init(null);
+        //the accessor keeps every number as a double, as the ones parsing a text file do
+        AutoConfig.registerAccessor(ACCESSOR, new ConfigAccessor() {
+            @Override
+            public boolean set(String key, AutoConfig.Type type, Object value) {
+                return true;
+            }
+
+            @Override
+            public Object get(String key, AutoConfig.Type type, Object defaultValue) {
+                return 0.5d;
+            }
+        });
+        AutoConfig.registerDefaultValueLoader(LOADER, (key, type) -> type == AutoConfig.Type.FLOAT ? (Object) 1f : 1d);
+    }
+
+    //a Double given for a float key is converted with the cache on as it is without the cache
+    @Test
+    public void doubleValueOfFloatKey() {
+        String key = "primitive_getter_test_float";
+        AutoConfig.registerFloat(key, ACCESSOR, LOADER);
+        assertEquals(0.5f, AutoConfig.getFloat(key));
+
+        assertTrue(AutoConfig.enableCache(key));
+        assertEquals(0.5f, AutoConfig.getFloat(key));
+        assertEquals(0.5f, AutoConfig.getFloat(key));
+
+        assertTrue(AutoConfig.enableNearCache(key));
+        assertEquals(0.5f, AutoConfig.getFloat(key));
+        assertEquals(0.5f, AutoConfig.getFloat(key));
+    }
+
+    @Test
+    public void doubleKeyWithTheCache() {
+        String key = "primitive_getter_test_double";
+        AutoConfig.registerDouble(key, ACCESSOR, LOADER);
+        assertTrue(AutoConfig.enableCache(key));
+        assertEquals(0.5d, AutoConfig.getDouble(key));
+        assertEquals(0.5d, AutoConfig.getDouble(key));
+    }
+}